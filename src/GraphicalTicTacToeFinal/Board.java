@@ -1,21 +1,21 @@
 package GraphicalTicTacToeFinal;
 
+import TicTacToeEngine.BitBoard;
+import TicTacToeEngine.GameEngine;
+import TicTacToeEngine.Geometry;
+import TicTacToeEngine.HintAnalyzer;
+
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Enhanced Board class with modern visual effects and animations
  */
 public class Board {
-    // Dynamic board size (default 3x3)
-    public static int ROWS = 3;
-    public static int COLS = 3;
-    public static int WIN_CONDITION = 3;
-
     // Enhanced visual constants
-    public static int CANVAS_WIDTH = Cell.SIZE * COLS;
-    public static int CANVAS_HEIGHT = Cell.SIZE * ROWS;
     public static final int GRID_WIDTH = 6;
     public static final int GRID_WIDTH_HALF = GRID_WIDTH / 2;
 
@@ -25,26 +25,83 @@ public class Board {
     public static final Color COLOR_BOARD_BG = new Color(248, 249, 250);
     public static final Color COLOR_CELL_HOVER = new Color(230, 240, 255, 100);
     public static final Color COLOR_WINNING_LINE = new Color(255, 215, 0, 200); // Gold
+    public static final Color COLOR_HINT_BAD = new Color(239, 83, 80);
+    public static final Color COLOR_HINT_GOOD = new Color(102, 187, 106);
+    public static final Color COLOR_HINT_BEST = new Color(46, 125, 50, 220);
+    private static final int HINT_ALPHA = 90;
+    /** Width of the glow around the winning line */
+    private static final int WIN_GLOW_WIDTH = 16;
+    private static final Stroke WIN_STROKE = new BasicStroke(8, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke WIN_GLOW_STROKE =
+            new BasicStroke(WIN_GLOW_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Color COLOR_WIN_GLOW = new Color(255, 215, 0, 30);
+    private static final Stroke HINT_STROKE = new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke GRID_STROKE =
+            new BasicStroke(GRID_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke GRID_SHADOW_STROKE =
+            new BasicStroke(GRID_WIDTH + 2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
 
     // Auto-layout constants
     private static final int MIN_CELL_SIZE = 60;
     private static final int MAX_CELL_SIZE = 200;
     private static final int UI_PADDING = 120;
 
+    // Engine state codes mapped to State (GameEngine uses the same order)
+    private static final State[] STATES = State.values();
+
+    // Dynamic board size (default 3x3), owned by this board only
+    private int rows = 3;
+    private int cols = 3;
+    private int winCondition = 3;
+
+    // Dynamic geometry, derived from the board size and the screen
+    private int cellSize = Cell.DEFAULT_SIZE;
+    private int canvasWidth;
+    private int canvasHeight;
+    /** Background and grid, pre-rendered for the screen and scale they were drawn on (null to rebuild) */
+    private BufferedImage staticLayer;
+    private GraphicsConfiguration staticLayerConfig;
+    private double staticLayerScale;
+    /** Seed sprites of this board's cells, evicted only when this board resizes */
+    private final SeedSprites seedSprites = new SeedSprites();
+
     // Game state
     Cell[][] cells;
-    private List<Point> winningLine = new ArrayList<>();
+    /** Headless engine holding the authoritative position */
+    private GameEngine engine;
+    /** Win mask of the finished game (0 if none); the point list is traced lazily */
+    private long winningMask = 0L;
+    private List<Point> winningLine = null;
     private Point hoveredCell = null;
     private long lastMoveTime = 0;
     private boolean showWinAnimation = false;
+    /** Hint overlay: heat color per cell (null if none) and the recommended cell */
+    private Color[] hintColors = null;
+    private int hintCell = -1;
+    /** Union of the areas changed since the last takeDirtyRegion() (null if none) */
+    private Rectangle dirtyRegion = null;
+    /** Reused for the cell areas added to dirtyRegion, so a move allocates nothing */
+    private final Rectangle scratchBounds = new Rectangle();
 
     public Board() {
         calculateOptimalCellSize();
         initGame();
     }
 
+    /** Construct a board of the given size, independent of any other board */
+    public Board(int rows, int cols) {
+        setBoardSize(rows, cols);
+    }
+
     /** Enhanced calculation with better screen utilization */
     private void calculateOptimalCellSize() {
+        if (GraphicsEnvironment.isHeadless()) {
+            // No screen to fit (e.g. boards hosted on a server): keep the default size
+            cellSize = Cell.DEFAULT_SIZE;
+            updateCanvasDimensions();
+            return;
+        }
+
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
         Rectangle bounds = ge.getMaximumWindowBounds();
@@ -54,149 +111,332 @@ public class Board {
         int availableSpace = Math.min(effectiveWidth, effectiveHeight) - UI_PADDING;
 
         // Enhanced calculation for better visual balance
-        int calculatedSize = (availableSpace * 88 / 100) / Math.max(ROWS, COLS);
+        int calculatedSize = (availableSpace * 88 / 100) / Math.max(rows, cols);
         int optimalSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, calculatedSize));
 
         // Special optimization for different board sizes
-        if (ROWS == 3 && COLS == 3 && optimalSize < 120 && availableSpace > 400) {
+        if (rows == 3 && cols == 3 && optimalSize < 120 && availableSpace > 400) {
             optimalSize = Math.min(140, (availableSpace * 92 / 100) / 3);
-        } else if (ROWS >= 5 && optimalSize > 120) {
+        } else if (rows >= 5 && optimalSize > 120) {
             optimalSize = Math.min(120, optimalSize); // Limit for larger boards
         }
 
-        Cell.updateSize(optimalSize);
+        cellSize = optimalSize;
         updateCanvasDimensions();
+        if (cells != null) {
+            for (Cell[] rowCells : cells) {
+                for (Cell cell : rowCells) {
+                    cell.updateSize(cellSize);
+                }
+            }
+        }
 
         System.out.println("🎨 Enhanced Auto-Layout:");
         System.out.println("   Screen: " + effectiveWidth + "x" + effectiveHeight);
-        System.out.println("   Cell size: " + optimalSize + "px");
-        System.out.println("   Board: " + CANVAS_WIDTH + "x" + CANVAS_HEIGHT + "px");
+        System.out.println("   Cell size: " + optimalSize + "px (Padding: " + Cell.paddingFor(optimalSize) + "px)");
+        System.out.println("   Board: " + canvasWidth + "x" + canvasHeight + "px");
     }
 
     private void updateCanvasDimensions() {
-        CANVAS_WIDTH = Cell.SIZE * COLS;
-        CANVAS_HEIGHT = Cell.SIZE * ROWS;
+        canvasWidth = cellSize * cols;
+        canvasHeight = cellSize * rows;
+        staticLayer = null;  // cell size or board size changed
     }
 
     public void initGame() {
-        cells = new Cell[ROWS][COLS];
-        for (int row = 0; row < ROWS; ++row) {
-            for (int col = 0; col < COLS; ++col) {
-                cells[row][col] = new Cell(row, col);
+        engine = new GameEngine(rows, cols, winCondition);
+        cells = new Cell[rows][cols];
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                cells[row][col] = new Cell(row, col, cellSize, seedSprites);
             }
         }
-        winningLine.clear();
+        winningMask = 0L;
+        winningLine = null;
+        hoveredCell = null;
         showWinAnimation = false;
+        clearHint();
+        invalidateAll();
     }
 
     public void setBoardSize(int rows, int cols) {
-        ROWS = rows;
-        COLS = cols;
-
-        // Enhanced win condition logic
-        switch (rows) {
-            case 3: WIN_CONDITION = 3; break;
-            case 4: WIN_CONDITION = 4; break;
-            case 5: WIN_CONDITION = 4; break;
-            case 6: WIN_CONDITION = 5; break;
-            default: WIN_CONDITION = Math.min(rows, 5); break;
-        }
+        // Enhanced win condition logic (validates the size as well)
+        int winCondition = Geometry.winConditionFor(rows);
+        Geometry.of(rows, cols, winCondition);
+
+        this.rows = rows;
+        this.cols = cols;
+        this.winCondition = winCondition;
 
         calculateOptimalCellSize();
         initGame();
     }
 
     public Dimension getOptimalWindowSize() {
-        return new Dimension(CANVAS_WIDTH + 50, CANVAS_HEIGHT + 140);
+        return new Dimension(canvasWidth + 50, canvasHeight + 140);
+    }
+
+    /** Zobrist hash of the current position, e.g. as a cache or archive key */
+    public long getPositionHash() {
+        return engine.getHash();
     }
 
     public int getCurrentCellSize() {
-        return Cell.SIZE;
+        return cellSize;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWinCondition() {
+        return winCondition;
+    }
+
+    public int getCanvasWidth() {
+        return canvasWidth;
+    }
+
+    public int getCanvasHeight() {
+        return canvasHeight;
     }
 
     public double getScreenUtilizationRatio() {
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         double screenArea = screenSize.getWidth() * screenSize.getHeight();
-        double boardArea = CANVAS_WIDTH * CANVAS_HEIGHT;
+        double boardArea = canvasWidth * canvasHeight;
         return (boardArea / screenArea) * 100;
     }
 
     public void newGame() {
-        for (int row = 0; row < ROWS; ++row) {
-            for (int col = 0; col < COLS; ++col) {
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
                 cells[row][col].newGame();
             }
         }
-        winningLine.clear();
+        engine.newGame();
+        winningMask = 0L;
+        winningLine = null;
+        hoveredCell = null;
         showWinAnimation = false;
         lastMoveTime = System.currentTimeMillis();
+        clearHint();
+        invalidateAll();
+    }
+
+    /**
+     * Show a hint: the recommended cell and a heat map over the empty cells.
+     * The colors are computed here once, so paint() only draws them.
+     */
+    public void setHint(HintAnalyzer.Hint hint) {
+        Color[] colors = new Color[rows * cols];
+        for (int cell = 0; cell < colors.length; ++cell) {
+            float heat = hint.getHeat(cell);
+            if (Float.isNaN(heat)) continue;
+            colors[cell] = new Color(
+                    mix(COLOR_HINT_BAD.getRed(), COLOR_HINT_GOOD.getRed(), heat),
+                    mix(COLOR_HINT_BAD.getGreen(), COLOR_HINT_GOOD.getGreen(), heat),
+                    mix(COLOR_HINT_BAD.getBlue(), COLOR_HINT_GOOD.getBlue(), heat),
+                    HINT_ALPHA);
+        }
+        hintColors = colors;
+        hintCell = hint.getBestMove();
+        invalidateAll();
+    }
+
+    /** Remove the hint overlay */
+    public void clearHint() {
+        if (hintColors != null) invalidateAll();
+        hintColors = null;
+        hintCell = -1;
+    }
+
+    public boolean hasHint() {
+        return hintColors != null;
+    }
+
+    private static int mix(int from, int to, float amount) {
+        return Math.round(from + (to - from) * amount);
     }
 
-    /** Enhanced hover effect */
+    /** Enhanced hover effect; (-1, -1) or any cell off the board removes it */
     public void setHoveredCell(int row, int col) {
-        if (row >= 0 && row < ROWS && col >= 0 && col < COLS) {
-            hoveredCell = new Point(col, row);
+        Point cell = (row >= 0 && row < rows && col >= 0 && col < cols) ? new Point(col, row) : null;
+        if (cell == null ? hoveredCell == null : cell.equals(hoveredCell)) return;
+        if (hoveredCell != null) invalidateCell(hoveredCell.y, hoveredCell.x);
+        if (cell != null) invalidateCell(row, col);
+        hoveredCell = cell;
+    }
+
+    /** Area of (row, col) in board coordinates */
+    public Rectangle getCellBounds(int row, int col) {
+        return new Rectangle(col * cellSize, row * cellSize, cellSize, cellSize);
+    }
+
+    /**
+     * Area covered by the winning line and its glow, or null if there is none.
+     * Found from the win mask's first and last cells, extended along the run
+     * like traceWinningLine(), without building the point list.
+     */
+    public Rectangle getWinningLineBounds() {
+        if (winningMask == 0L) return null;
+        int first = Long.numberOfTrailingZeros(winningMask);
+        int second = Long.numberOfTrailingZeros(winningMask & (winningMask - 1));
+        int last = 63 - Long.numberOfLeadingZeros(winningMask);
+        int deltaRow = second / cols - first / cols;
+        int deltaCol = second % cols - first % cols;
+        int player = engine.get(first / cols, first % cols);
+
+        int startRow = first / cols, startCol = first % cols;
+        while (isOwnedBy(player, startRow - deltaRow, startCol - deltaCol)) {
+            startRow -= deltaRow;
+            startCol -= deltaCol;
+        }
+        int endRow = last / cols, endCol = last % cols;
+        while (isOwnedBy(player, endRow + deltaRow, endCol + deltaCol)) {
+            endRow += deltaRow;
+            endCol += deltaCol;
+        }
+
+        Rectangle bounds = new Rectangle(startCol * cellSize + cellSize / 2, startRow * cellSize + cellSize / 2, 0, 0);
+        bounds.add(endCol * cellSize + cellSize / 2, endRow * cellSize + cellSize / 2);
+        int margin = WIN_GLOW_WIDTH / 2 + 1;
+        bounds.grow(margin, margin);
+        return bounds;
+    }
+
+    /**
+     * Area changed since the last call (in board coordinates), or null if
+     * nothing changed; the caller repaints just that.
+     */
+    public Rectangle takeDirtyRegion() {
+        Rectangle region = dirtyRegion;
+        dirtyRegion = null;
+        return region;
+    }
+
+    private void invalidate(Rectangle area) {
+        if (area == null) return;
+        if (dirtyRegion == null) {
+            dirtyRegion = new Rectangle(area);
         } else {
-            hoveredCell = null;
+            dirtyRegion.add(area);
         }
     }
 
+    private void invalidateCell(int row, int col) {
+        scratchBounds.setBounds(col * cellSize, row * cellSize, cellSize, cellSize);
+        invalidate(scratchBounds);
+    }
+
+    private void invalidateAll() {
+        invalidate(new Rectangle(0, 0, canvasWidth, canvasHeight));
+    }
+
+    /** Check if (row, col) is still free */
+    public boolean isEmpty(int row, int col) {
+        return engine.get(row, col) == GameEngine.NO_SEED;
+    }
+
     public State stepGame(Seed player, int selectedRow, int selectedCol) {
+        int result = engine.stepGame(player == Seed.CROSS ? GameEngine.CROSS : GameEngine.NOUGHT,
+                selectedRow, selectedCol);
         cells[selectedRow][selectedCol].content = player;
         lastMoveTime = System.currentTimeMillis();
-
-        if (hasWon(player, selectedRow, selectedCol)) {
+        clearHint();  // the hint was for the previous position
+        setHoveredCell(-1, -1);  // the cell is taken now
+        invalidateCell(selectedRow, selectedCol);
+
+        if (result == GameEngine.CROSS_WON || result == GameEngine.NOUGHT_WON) {
+            // Remember the run only; the point list is built when first drawn
+            winningMask = engine.getWinningMask();
+            winningLine = null;
             showWinAnimation = true;
-            return (player == Seed.CROSS) ? State.CROSS_WON : State.NOUGHT_WON;
-        } else {
-            // Check for draw
-            for (int row = 0; row < ROWS; ++row) {
-                for (int col = 0; col < COLS; ++col) {
-                    if (cells[row][col].content == Seed.NO_SEED) {
-                        return State.PLAYING;
-                    }
-                }
-            }
-            return State.DRAW;
+            invalidate(getWinningLineBounds());
         }
+        return STATES[result];
     }
 
-    private boolean hasWon(Seed player, int row, int col) {
-        // Check all directions and store winning line
-        if (checkDirection(player, row, col, 0, 1)) return true;  // Horizontal
-        if (checkDirection(player, row, col, 1, 0)) return true;  // Vertical
-        if (checkDirection(player, row, col, 1, 1)) return true;  // Diagonal \
-        if (checkDirection(player, row, col, 1, -1)) return true; // Diagonal /
-        return false;
+    /** The player whose turn it is makes a move on (row, col) */
+    public State makeMove(int row, int col) {
+        return stepGame(getCurrentPlayer(), row, col);
     }
 
-    private boolean checkDirection(Seed player, int row, int col, int deltaRow, int deltaCol) {
-        List<Point> line = new ArrayList<>();
-        line.add(new Point(col, row));
-
-        // Check positive direction
-        int r = row + deltaRow;
-        int c = col + deltaCol;
-        while (r >= 0 && r < ROWS && c >= 0 && c < COLS && cells[r][c].content == player) {
-            line.add(new Point(c, r));
-            r += deltaRow;
-            c += deltaCol;
+    /**
+     * Take back the last move (or timed-out turn) in O(1): the cell, the player
+     * to move, the win state and the engine's counters and hash are restored.
+     */
+    public void unmakeMove() {
+        if (winningMask != 0L) invalidate(getWinningLineBounds());  // before the run is broken
+        int cell = engine.unmakeMove();
+        if (cell != BitBoard.PASS) {
+            cells[cell / cols][cell % cols].content = Seed.NO_SEED;
+            invalidateCell(cell / cols, cell % cols);
         }
+        winningMask = 0L;
+        winningLine = null;
+        showWinAnimation = false;
+        clearHint();
+    }
 
-        // Check negative direction
-        r = row - deltaRow;
-        c = col - deltaCol;
-        while (r >= 0 && r < ROWS && c >= 0 && c < COLS && cells[r][c].content == player) {
-            line.add(new Point(c, r));
-            r -= deltaRow;
-            c -= deltaCol;
+    /** Current player gives up the turn, e.g. when the turn timer runs out */
+    public void passTurn() {
+        engine.passTurn();
+        clearHint();
+    }
+
+    /** Player whose turn it is */
+    public Seed getCurrentPlayer() {
+        return (engine.getCurrentPlayer() == GameEngine.CROSS) ? Seed.CROSS : Seed.NOUGHT;
+    }
+
+    /** Snapshot of the position for analysis off the Event Dispatch Thread */
+    public BitBoard copyPosition() {
+        return engine.getBitBoard().copy();
+    }
+
+    /** Number of moves (including timed-out turns) that unmakeMove() can take back */
+    public int getMoveCount() {
+        return engine.getBitBoard().getMoveCount();
+    }
+
+    /**
+     * Trace the full winning run from the engine's win mask. The mask holds
+     * winCondition cells; the run is extended both ways so longer lines
+     * (e.g. joining two segments) are drawn end to end.
+     */
+    private List<Point> traceWinningLine() {
+        if (winningMask == 0L) return Collections.emptyList();
+
+        int first = Long.numberOfTrailingZeros(winningMask);
+        int second = Long.numberOfTrailingZeros(winningMask & (winningMask - 1));
+        int row = first / cols, col = first % cols;
+        int deltaRow = second / cols - row;
+        int deltaCol = second % cols - col;
+        int player = engine.get(row, col);
+
+        // Walk back to the start of the run
+        while (isOwnedBy(player, row - deltaRow, col - deltaCol)) {
+            row -= deltaRow;
+            col -= deltaCol;
         }
 
-        if (line.size() >= WIN_CONDITION) {
-            winningLine = line;
-            return true;
+        // Collect the run from one end to the other
+        List<Point> line = new ArrayList<>();
+        while (isOwnedBy(player, row, col)) {
+            line.add(new Point(col, row));
+            row += deltaRow;
+            col += deltaCol;
         }
-        return false;
+        return line;
+    }
+
+    private boolean isOwnedBy(int player, int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && engine.get(row, col) == player;
     }
 
     /** Enhanced paint method with modern effects */
@@ -208,74 +448,129 @@ public class Board {
         g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
 
-        // Draw board background with subtle gradient
-        GradientPaint bgGradient = new GradientPaint(0, 0, COLOR_BOARD_BG,
-                CANVAS_WIDTH, CANVAS_HEIGHT,
-                COLOR_BOARD_BG.brighter());
-        g2d.setPaint(bgGradient);
-        g2d.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+        // Background and grid: one blit of the cached layer
+        drawStaticLayer(g2d);
 
         // Draw hover effect
         if (hoveredCell != null) {
             g2d.setColor(COLOR_CELL_HOVER);
-            g2d.fillRect(hoveredCell.x * Cell.SIZE, hoveredCell.y * Cell.SIZE,
-                    Cell.SIZE, Cell.SIZE);
+            g2d.fillRect(hoveredCell.x * cellSize, hoveredCell.y * cellSize,
+                    cellSize, cellSize);
         }
 
-        // Draw enhanced grid with shadow effect
-        drawEnhancedGrid(g2d);
+        // Only cells inside the repainted area are drawn
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, canvasWidth, canvasHeight);
+        int firstRow = Math.max(clip.y / cellSize, 0);
+        int lastRow = Math.min((clip.y + clip.height - 1) / cellSize, rows - 1);
+        int firstCol = Math.max(clip.x / cellSize, 0);
+        int lastCol = Math.min((clip.x + clip.width - 1) / cellSize, cols - 1);
+
+        // Draw the hint heat map (precomputed colors only)
+        if (hintColors != null) {
+            for (int cell = 0; cell < hintColors.length; ++cell) {
+                int row = cell / cols, col = cell % cols;
+                if (hintColors[cell] == null || row < firstRow || row > lastRow || col < firstCol || col > lastCol) {
+                    continue;
+                }
+                g2d.setColor(hintColors[cell]);
+                g2d.fillRect(cell % cols * cellSize, cell / cols * cellSize, cellSize, cellSize);
+            }
+        }
 
-        // Draw all cells
-        for (int row = 0; row < ROWS; ++row) {
-            for (int col = 0; col < COLS; ++col) {
+        // Draw the cells in the repainted area
+        for (int row = firstRow; row <= lastRow; ++row) {
+            for (int col = firstCol; col <= lastCol; ++col) {
                 cells[row][col].paint(g2d);
             }
         }
 
+        // Outline the recommended cell
+        if (hintCell >= 0) {
+            int inset = Cell.paddingFor(cellSize) / 2;
+            g2d.setColor(COLOR_HINT_BEST);
+            g2d.setStroke(HINT_STROKE);
+            g2d.drawRoundRect(hintCell % cols * cellSize + inset, hintCell / cols * cellSize + inset,
+                    cellSize - 2 * inset, cellSize - 2 * inset, inset, inset);
+        }
+
         // Draw winning line animation
-        if (showWinAnimation && !winningLine.isEmpty()) {
+        if (showWinAnimation && winningMask != 0L) {
             drawWinningLine(g2d);
         }
     }
 
+    /**
+     * Draw the background and grid from the cached layer, rendering the layer
+     * first if the board was resized or moved to a screen of another kind or scale.
+     */
+    private void drawStaticLayer(Graphics2D g2d) {
+        GraphicsConfiguration config = g2d.getDeviceConfiguration();
+        double scale = g2d.getTransform().getScaleX();
+        if (staticLayer == null || config != staticLayerConfig || scale != staticLayerScale) {
+            // Rendered at device resolution, so HiDPI screens get a 1:1 blit too
+            staticLayer = config.createCompatibleImage((int) Math.ceil(canvasWidth * scale),
+                    (int) Math.ceil(canvasHeight * scale), Transparency.OPAQUE);
+            staticLayerConfig = config;
+            staticLayerScale = scale;
+
+            Graphics2D layer = staticLayer.createGraphics();
+            layer.scale(scale, scale);
+            layer.setRenderingHints(g2d.getRenderingHints());
+            drawBackground(layer);
+            drawEnhancedGrid(layer);
+            layer.dispose();
+        }
+        g2d.drawImage(staticLayer, 0, 0, canvasWidth, canvasHeight, null);
+    }
+
+    private void drawBackground(Graphics2D g2d) {
+        // Board background with subtle gradient
+        g2d.setPaint(new GradientPaint(0, 0, COLOR_BOARD_BG,
+                canvasWidth, canvasHeight,
+                COLOR_BOARD_BG.brighter()));
+        g2d.fillRect(0, 0, canvasWidth, canvasHeight);
+    }
+
     private void drawEnhancedGrid(Graphics2D g2d) {
         // Draw grid shadow first
         g2d.setColor(COLOR_GRID_SHADOW);
-        g2d.setStroke(new BasicStroke(GRID_WIDTH + 2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.setStroke(GRID_SHADOW_STROKE);
 
         // Horizontal lines shadow
-        for (int row = 1; row < ROWS; ++row) {
-            int y = Cell.SIZE * row;
-            g2d.drawLine(2, y + 1, CANVAS_WIDTH - 2, y + 1);
+        for (int row = 1; row < rows; ++row) {
+            int y = cellSize * row;
+            g2d.drawLine(2, y + 1, canvasWidth - 2, y + 1);
         }
 
         // Vertical lines shadow
-        for (int col = 1; col < COLS; ++col) {
-            int x = Cell.SIZE * col;
-            g2d.drawLine(x + 1, 2, x + 1, CANVAS_HEIGHT - 2);
+        for (int col = 1; col < cols; ++col) {
+            int x = cellSize * col;
+            g2d.drawLine(x + 1, 2, x + 1, canvasHeight - 2);
         }
 
         // Draw main grid
         g2d.setColor(COLOR_GRID);
-        g2d.setStroke(new BasicStroke(GRID_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.setStroke(GRID_STROKE);
 
         // Horizontal lines
-        for (int row = 1; row < ROWS; ++row) {
-            int y = Cell.SIZE * row;
-            g2d.drawLine(0, y, CANVAS_WIDTH, y);
+        for (int row = 1; row < rows; ++row) {
+            int y = cellSize * row;
+            g2d.drawLine(0, y, canvasWidth, y);
         }
 
         // Vertical lines
-        for (int col = 1; col < COLS; ++col) {
-            int x = Cell.SIZE * col;
-            g2d.drawLine(x, 0, x, CANVAS_HEIGHT);
+        for (int col = 1; col < cols; ++col) {
+            int x = cellSize * col;
+            g2d.drawLine(x, 0, x, canvasHeight);
         }
     }
 
     private void drawWinningLine(Graphics2D g2d) {
+        List<Point> winningLine = getWinningLine();
         if (winningLine.size() < 2) return;
 
-        // Animated winning line
+        // Animated winning line: the pulse follows the clock, WinLineAnimator schedules the frames
         long currentTime = System.currentTimeMillis();
         float alpha = (float)(0.7 + 0.3 * Math.sin((currentTime - lastMoveTime) / 200.0));
 
@@ -283,26 +578,29 @@ public class Board {
                 COLOR_WINNING_LINE.getGreen(),
                 COLOR_WINNING_LINE.getBlue(),
                 (int)(alpha * 255)));
-        g2d.setStroke(new BasicStroke(8, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.setStroke(WIN_STROKE);
 
         // Draw line through winning cells
         Point start = winningLine.get(0);
         Point end = winningLine.get(winningLine.size() - 1);
 
-        int startX = start.x * Cell.SIZE + Cell.SIZE / 2;
-        int startY = start.y * Cell.SIZE + Cell.SIZE / 2;
-        int endX = end.x * Cell.SIZE + Cell.SIZE / 2;
-        int endY = end.y * Cell.SIZE + Cell.SIZE / 2;
+        int startX = start.x * cellSize + cellSize / 2;
+        int startY = start.y * cellSize + cellSize / 2;
+        int endX = end.x * cellSize + cellSize / 2;
+        int endY = end.y * cellSize + cellSize / 2;
 
         g2d.drawLine(startX, startY, endX, endY);
 
         // Draw glow effect
-        g2d.setStroke(new BasicStroke(16, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        g2d.setColor(new Color(255, 215, 0, 30));
+        g2d.setStroke(WIN_GLOW_STROKE);
+        g2d.setColor(COLOR_WIN_GLOW);
         g2d.drawLine(startX, startY, endX, endY);
     }
 
     public List<Point> getWinningLine() {
+        if (winningLine == null) {
+            winningLine = traceWinningLine();
+        }
         return winningLine;
     }
 
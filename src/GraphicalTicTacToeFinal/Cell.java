@@ -5,12 +5,19 @@ import java.awt.*;
  * Enhanced Cell class with improved dynamic sizing and rendering
  */
 public class Cell {
-    // Dynamic cell size - will be calculated based on screen size
-    public static int SIZE = 120; // default size, will be updated
-
+    /** Default cell width/height before the board calculates its own */
+    public static final int DEFAULT_SIZE = 120;
+    /** Text colors when the seed images are missing */
+    private static final Color COLOR_CROSS_TEXT = new Color(239, 105, 80); // Red for X
+    private static final Color COLOR_NOUGHT_TEXT = new Color(64, 154, 225); // Blue for O
+
+    // Dynamic cell size - owned by the board this cell belongs to
+    int size;
     // Symbols (cross/nought) are displayed inside a cell, with padding from border
-    public static int PADDING = SIZE / 5;
-    public static int SEED_SIZE = SIZE - PADDING * 2;
+    int padding;
+    int seedSize;
+    /** Seed sprites shared by the cells of one board */
+    private final SeedSprites sprites;
 
     // Define properties (package-visible)
     /** Content of this cell (Seed.EMPTY, Seed.CROSS, or Seed.NOUGHT) */
@@ -18,11 +25,18 @@ public class Cell {
     /** Row and column of this cell */
     int row, col;
 
-    /** Constructor to initialize this cell with the specified row and col */
-    public Cell(int row, int col) {
+    /** Constructor to initialize this cell with the specified row, col and size */
+    public Cell(int row, int col, int size) {
+        this(row, col, size, new SeedSprites());
+    }
+
+    /** Cell of a board, painting with the board's sprite cache */
+    Cell(int row, int col, int size, SeedSprites sprites) {
         this.row = row;
         this.col = col;
+        this.sprites = sprites;
         content = Seed.NO_SEED;
+        updateSize(size);
     }
 
     /** Reset this cell's content to EMPTY, ready for new game */
@@ -31,50 +45,59 @@ public class Cell {
     }
 
     /** Update cell size and recalculate dependent values */
-    public static void updateSize(int newSize) {
-        SIZE = newSize;
-        PADDING = Math.max(SIZE / 6, 8); // Ensure minimum padding of 8px
-        SEED_SIZE = SIZE - PADDING * 2;
+    public void updateSize(int newSize) {
+        int oldSeedSize = seedSize;
+        size = newSize;
+        padding = paddingFor(newSize);
+        seedSize = size - padding * 2;
+        if (oldSeedSize != 0 && oldSeedSize != seedSize) {
+            sprites.invalidate(oldSeedSize);
+        }
+    }
 
-        System.out.println("Cell size updated: " + SIZE + "px (Padding: " + PADDING + "px, Seed: " + SEED_SIZE + "px)");
+    /** Padding used for a cell of the given size */
+    static int paddingFor(int size) {
+        return Math.max(size / 6, 8); // Ensure minimum padding of 8px
     }
 
     /** Get cell center coordinates */
     public Point getCenterPoint() {
-        return new Point(col * SIZE + SIZE / 2, row * SIZE + SIZE / 2);
+        return new Point(col * size + size / 2, row * size + size / 2);
     }
 
     /** Check if a point is within this cell */
     public boolean contains(int x, int y) {
-        return x >= col * SIZE && x < (col + 1) * SIZE &&
-                y >= row * SIZE && y < (row + 1) * SIZE;
+        return x >= col * size && x < (col + 1) * size &&
+                y >= row * size && y < (row + 1) * size;
     }
 
     /** Paint itself on the graphics canvas, given the Graphics context */
     public void paint(Graphics g) {
         // Draw the Seed if it is not empty
-        int x1 = col * SIZE + PADDING;
-        int y1 = row * SIZE + PADDING;
+        int x1 = col * size + padding;
+        int y1 = row * size + padding;
 
         if (content == Seed.CROSS || content == Seed.NOUGHT) {
-            // Enable anti-aliasing for smoother image rendering
             if (g instanceof Graphics2D) {
+                // Pre-scaled sprite (or pre-rendered text if the image is missing): a 1:1 blit
                 Graphics2D g2d = (Graphics2D) g;
-                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-            }
-
-            if (content.getImage() != null) {
-                g.drawImage(content.getImage(), x1, y1, SEED_SIZE, SEED_SIZE, null);
+                g.drawImage(sprites.get(content, seedSize, g2d.getDeviceConfiguration(),
+                        g2d.getTransform().getScaleX()), x1, y1, seedSize, seedSize, null);
+            } else if (content.getImage() != null) {
+                g.drawImage(content.getImage(), x1, y1, seedSize, seedSize, null);
             } else {
                 // Fallback: draw text if image is not available
-                drawTextFallback(g, x1, y1);
+                drawTextFallback(g, content, seedSize, x1, y1);
             }
         }
     }
 
-    /** Fallback method to draw text when images are not available */
-    private void drawTextFallback(Graphics g, int x, int y) {
-        g.setFont(new Font("Arial", Font.BOLD, SEED_SIZE / 2));
+    /**
+     * Fallback method to draw text when images are not available.
+     * SeedSprites renders it once per size; it is not called on every paint.
+     */
+    static void drawTextFallback(Graphics g, Seed content, int seedSize, int x, int y) {
+        g.setFont(new Font("Arial", Font.BOLD, seedSize / 2));
         FontMetrics fm = g.getFontMetrics();
 
         String text = content.getDisplayName();
@@ -82,14 +105,14 @@ public class Cell {
         int textHeight = fm.getHeight();
 
         // Center the text in the cell
-        int textX = x + (SEED_SIZE - textWidth) / 2;
-        int textY = y + (SEED_SIZE + textHeight) / 2 - fm.getDescent();
+        int textX = x + (seedSize - textWidth) / 2;
+        int textY = y + (seedSize + textHeight) / 2 - fm.getDescent();
 
         // Set color based on content
         if (content == Seed.CROSS) {
-            g.setColor(new Color(239, 105, 80)); // Red for X
+            g.setColor(COLOR_CROSS_TEXT);
         } else if (content == Seed.NOUGHT) {
-            g.setColor(new Color(64, 154, 225)); // Blue for O
+            g.setColor(COLOR_NOUGHT_TEXT);
         }
 
         g.drawString(text, textX, textY);
@@ -1,7 +1,15 @@
 package GraphicalTicTacToeFinal;
 
+import TicTacToeEngine.BitBoard;
+import TicTacToeEngine.Geometry;
+import TicTacToeEngine.HintAnalyzer;
+import TicTacToeEngine.MoveSearch;
+import TicTacToeEngine.Ponderer;
+
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.*;
 
 public class GameMain extends JPanel {
@@ -17,6 +25,8 @@ public class GameMain extends JPanel {
     public static final Font FONT_STATUS = new Font("Arial", Font.PLAIN, 12);
     public static final Font FONT_PAUSE = new Font("Arial", Font.BOLD, 48);
     private static final int TURN_TIME = 10;
+    /** Time spent analyzing a position for a hint */
+    private static final long HINT_TIME_NANOS = 1_500_000_000L;
 
     // Game objects
     private Board board;
@@ -41,6 +51,38 @@ public class GameMain extends JPanel {
     private int timeLeft = TURN_TIME;
     private boolean timerRunning = false;
 
+    // Computer opponent: searches run one at a time on a background thread
+    private boolean crossIsComputer = false;
+    private boolean noughtIsComputer = false;
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TicTacToe-AI");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private MoveSearch search;
+    /** Searches the computer's answers while the human thinks */
+    private Ponderer ponderer;
+    /** Bumped whenever a pending computer move becomes stale (EDT only) */
+    private int aiGeneration = 0;
+
+    // Hints: analyzed on their own background thread, published to the EDT
+    private final ExecutorService hintExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TicTacToe-Hint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private HintAnalyzer hintAnalyzer;
+    /** Bumped whenever a pending hint becomes stale (EDT only) */
+    private int hintGeneration = 0;
+
+    // Debug overlay: outline each repainted area, in a new color every paint
+    private static final Color[] REPAINT_COLORS = {Color.RED, Color.MAGENTA, Color.BLUE, Color.ORANGE};
+    private boolean showRepaintRegions = false;
+    private int repaintCount = 0;
+
+    /** Repaints the pulsing winning line while it is shown */
+    private final WinLineAnimator winAnimator = new WinLineAnimator(this);
+
     // Menu components
     private JMenuBar menuBar;
     private JMenu gameMenu;
@@ -57,37 +99,41 @@ public class GameMain extends JPanel {
 
                 int mouseX = e.getX();
                 int mouseY = e.getY();
-                int row = mouseY / Cell.SIZE;
-                int col = mouseX / Cell.SIZE;
+                int row = mouseY / board.getCurrentCellSize();
+                int col = mouseX / board.getCurrentCellSize();
 
                 if (currentState == State.PLAYING) {
-                    if (row >= 0 && row < Board.ROWS && col >= 0 && col < Board.COLS
-                            && board.cells[row][col].content == Seed.NO_SEED) {
-                        currentState = board.stepGame(currentPlayer, row, col);
-
-                        // Update scores
-                        if (currentState == State.CROSS_WON) {
-                            crossWins++;
-                        } else if (currentState == State.NOUGHT_WON) {
-                            noughtWins++;
-                        }
+                    if (isComputer(currentPlayer)) return; // wait for the computer's move
 
-                        // Reset timer for next player
-                        resetTimer();
-                        currentPlayer = (currentPlayer == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
-                    }
-
-                    // Sound effects
-                    if (currentState == State.PLAYING) {
-                        SoundEffect.EAT_FOOD.play();
-                    } else {
-                        SoundEffect.DIE.play();
-                        stopTimer();
+                    if (row >= 0 && row < board.getRows() && col >= 0 && col < board.getCols()
+                            && board.isEmpty(row, col)) {
+                        playMove(row, col);
+                        return;
                     }
+                    SoundEffect.EAT_FOOD.play();
                 } else {
                     newGame();
                 }
-                repaint();
+                repaintChanges();
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                board.setHoveredCell(-1, -1);
+                repaintChanges();
+            }
+        });
+
+        // Hover highlight on the empty cell under the mouse
+        super.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int row = e.getY() / board.getCurrentCellSize();
+                int col = e.getX() / board.getCurrentCellSize();
+                boolean canPlay = currentState == State.PLAYING && !isPaused && !isComputer(currentPlayer)
+                        && row < board.getRows() && col < board.getCols() && board.isEmpty(row, col);
+                board.setHoveredCell(canPlay ? row : -1, canPlay ? col : -1);
+                repaintChanges();
             }
         });
 
@@ -109,7 +155,7 @@ public class GameMain extends JPanel {
                         if (e.isControlDown()) {
                             crossWins = 0;
                             noughtWins = 0;
-                            repaint();
+                            updateStatusBar();
                         }
                         break;
                     case KeyEvent.VK_P:
@@ -128,7 +174,7 @@ public class GameMain extends JPanel {
                 if (timeLeft <= 0) {
                     timeUp();
                 }
-                repaint();
+                updateStatusBar();  // only the seconds changed
             }
         });
 
@@ -165,11 +211,155 @@ public class GameMain extends JPanel {
         updatePanelSize();
     }
 
+    /** The current player moves on (row, col); update scores, timer, sounds and the display */
+    private void playMove(int row, int col) {
+        cancelHint();
+        currentState = board.stepGame(currentPlayer, row, col);
+
+        // Update scores
+        if (currentState == State.CROSS_WON) {
+            crossWins++;
+        } else if (currentState == State.NOUGHT_WON) {
+            noughtWins++;
+        }
+
+        // Reset timer for next player
+        resetTimer();
+        currentPlayer = (currentPlayer == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+
+        // Sound effects
+        if (currentState == State.PLAYING) {
+            SoundEffect.EAT_FOOD.play();
+        } else {
+            SoundEffect.DIE.play();
+            stopTimer();
+        }
+        repaintChanges();
+        startComputerMoveIfNeeded();
+    }
+
+    private boolean isComputer(Seed player) {
+        return (player == Seed.CROSS) ? crossIsComputer : noughtIsComputer;
+    }
+
+    /**
+     * If the computer plays the current turn, search for its move on the AI
+     * thread so the UI and the turn timer stay responsive. The result is
+     * applied on the Event Dispatch Thread, unless the game moved on meanwhile.
+     * A reply pondered during the human's turn is played at once.
+     */
+    private void startComputerMoveIfNeeded() {
+        if (currentState != State.PLAYING || isPaused) return;
+        if (!isComputer(currentPlayer)) {
+            startPonderingIfNeeded();
+            return;
+        }
+
+        final int generation = ++aiGeneration;
+        final BitBoard position = board.copyPosition();
+        final MoveSearch current = searchFor(position.getGeometry());
+        ponderer.cancel();
+        // Leave a safety margin so the move always lands before timeUp()
+        final long budget = Math.max(timeLeft - 1, 0) * 1_000_000_000L + 500_000_000L;
+        // A pondered reply only if it is as good as what the search would find now
+        int pondered = ponderer.answer(position, budget);
+        if (pondered >= 0) {
+            SwingUtilities.invokeLater(() -> applyComputerMove(generation, position, pondered));
+            return;
+        }
+
+        // Fixed now, with the turn timer: waiting for the pondering to stop counts
+        final long deadline = System.nanoTime() + budget;
+        // Taken after ponderer.cancel(), so only a later cancel stops this search
+        final int cancelCount = current.getCancelCount();
+        aiExecutor.execute(() -> {
+            int cell = current.bestMove(position, deadline, cancelCount);
+            SwingUtilities.invokeLater(() -> applyComputerMove(generation, position, cell));
+        });
+    }
+
+    /** Play the computer's move (on the EDT), unless the game moved on since it was requested */
+    private void applyComputerMove(int generation, BitBoard position, int cell) {
+        if (generation != aiGeneration || cell < 0 || currentState != State.PLAYING || isPaused) return;
+        int cols = position.getGeometry().getCols();
+        playMove(cell / cols, cell % cols);
+    }
+
+    /** While a human plays against the computer, think about the computer's replies */
+    private void startPonderingIfNeeded() {
+        Seed opponent = (currentPlayer == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        if (isComputer(currentPlayer) || !isComputer(opponent)) return;
+        BitBoard position = board.copyPosition();
+        searchFor(position.getGeometry());
+        aiExecutor.execute(ponderer.start(position));
+    }
+
+    /** The computer's search for the board shape, created when the shape changes */
+    private MoveSearch searchFor(Geometry geometry) {
+        if (search == null || search.getGeometry() != geometry) {
+            if (ponderer != null) ponderer.cancel();
+            if (search != null) search.shutdown();  // release its threads; queued work gets no answer
+            search = MoveSearch.forGeometry(geometry);
+            ponderer = new Ponderer(search);
+        }
+        return search;
+    }
+
+    /** Discard any computer move still being searched, and stop pondering */
+    private void cancelComputerMove() {
+        ++aiGeneration;
+        if (ponderer != null) {
+            ponderer.cancel();
+        }
+        if (search != null) {
+            search.cancel();
+        }
+    }
+
+    /**
+     * Analyze the current position on the hint thread; the recommended cell and
+     * heat map are handed to the board on the EDT, unless a move came first.
+     */
+    private void requestHint() {
+        if (currentState != State.PLAYING || isPaused) return;
+        cancelHint();
+
+        final int generation = hintGeneration;
+        final BitBoard position = board.copyPosition();
+        if (hintAnalyzer == null || hintAnalyzer.getGeometry() != position.getGeometry()) {
+            hintAnalyzer = new HintAnalyzer(position.getGeometry());
+        }
+        final HintAnalyzer analyzer = hintAnalyzer;
+        // Taken after cancelHint(): a later cancel skips the analysis even while queued
+        final int cancelCount = analyzer.getCancelCount();
+        hintExecutor.execute(() -> {
+            // Timed from the start of the work, so time spent queued is not lost
+            HintAnalyzer.Hint hint = analyzer.analyze(position, System.nanoTime() + HINT_TIME_NANOS, cancelCount);
+            SwingUtilities.invokeLater(() -> {
+                if (hint == null || generation != hintGeneration) return;
+                board.setHint(hint);
+                repaintChanges();
+            });
+        });
+    }
+
+    /** Drop the hint on display and any hint still being analyzed */
+    private void cancelHint() {
+        ++hintGeneration;
+        if (hintAnalyzer != null) {
+            hintAnalyzer.cancel();
+        }
+        if (board.hasHint()) {
+            board.clearHint();
+            repaintChanges();
+        }
+    }
+
     /** Set player names */
     public void setPlayerNames(String playerXName, String playerOName) {
         this.playerXName = playerXName;
         this.playerOName = playerOName;
-        repaint(); // Update display
+        updateStatusBar();
     }
 
     /** Get current player name */
@@ -193,7 +383,7 @@ public class GameMain extends JPanel {
         super.setPreferredSize(optimalSize);
 
         // Update status bar width to match board width
-        statusBar.setPreferredSize(new Dimension(Board.CANVAS_WIDTH, 30));
+        statusBar.setPreferredSize(new Dimension(board.getCanvasWidth(), 30));
 
         if (parentFrame != null) {
             parentFrame.pack();
@@ -211,12 +401,11 @@ public class GameMain extends JPanel {
     }
 
     public void newGame() {
+        cancelComputerMove();
+        cancelHint();
+
         // Reset board
-        for (int row = 0; row < Board.ROWS; ++row) {
-            for (int col = 0; col < Board.COLS; ++col) {
-                board.cells[row][col].content = Seed.NO_SEED;
-            }
-        }
+        board.newGame();
 
         currentPlayer = Seed.CROSS;
         currentState = State.PLAYING;
@@ -227,6 +416,8 @@ public class GameMain extends JPanel {
 
         resetTimer();
         startTimer();
+        repaintChanges();
+        startComputerMoveIfNeeded();
     }
 
     private void togglePause() {
@@ -238,15 +429,18 @@ public class GameMain extends JPanel {
             pauseResumeButton.setText("▶️ Resume");
             pauseResumeButton.setBackground(new Color(76, 175, 80));
             stopTimer();
+            cancelComputerMove();
             SoundEffect.EAT_FOOD.play();
         } else {
             pauseResumeButton.setText("⏸️ Pause");
             pauseResumeButton.setBackground(null);
             startTimer();
             SoundEffect.EAT_FOOD.play();
+            startComputerMoveIfNeeded();
         }
 
-        repaint();
+        board.setHoveredCell(-1, -1);
+        repaintAll();  // the pause overlay covers everything
         requestFocus();
     }
 
@@ -271,10 +465,14 @@ public class GameMain extends JPanel {
 
     private void timeUp() {
         if (currentState == State.PLAYING && !isPaused) {
+            cancelComputerMove();
+            cancelHint();
+            board.passTurn();
             currentPlayer = (currentPlayer == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
             SoundEffect.DIE.play();
             resetTimer();
-            repaint();
+            repaintChanges();
+            startComputerMoveIfNeeded();
         }
     }
 
@@ -293,6 +491,32 @@ public class GameMain extends JPanel {
         pauseResumeItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0));
         pauseResumeItem.addActionListener(e -> togglePause());
 
+        JCheckBoxMenuItem crossComputerItem = new JCheckBoxMenuItem("🤖 X is Computer");
+        crossComputerItem.setFont(FONT_STATUS);
+        crossComputerItem.addActionListener(e -> {
+            crossIsComputer = crossComputerItem.isSelected();
+            onComputerPlayersChanged();
+        });
+
+        JCheckBoxMenuItem noughtComputerItem = new JCheckBoxMenuItem("🤖 O is Computer");
+        noughtComputerItem.setFont(FONT_STATUS);
+        noughtComputerItem.addActionListener(e -> {
+            noughtIsComputer = noughtComputerItem.isSelected();
+            onComputerPlayersChanged();
+        });
+
+        JMenuItem hintItem = new JMenuItem("💡 Hint (Ctrl+H)");
+        hintItem.setFont(FONT_STATUS);
+        hintItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_H, InputEvent.CTRL_DOWN_MASK));
+        hintItem.addActionListener(e -> requestHint());
+
+        JCheckBoxMenuItem repaintRegionsItem = new JCheckBoxMenuItem("🔲 Show Repaint Regions");
+        repaintRegionsItem.setFont(FONT_STATUS);
+        repaintRegionsItem.addActionListener(e -> {
+            showRepaintRegions = repaintRegionsItem.isSelected();
+            repaintAll();
+        });
+
         JMenuItem changeSizeItem = new JMenuItem("📐 Change Board Size");
         changeSizeItem.setFont(FONT_STATUS);
         changeSizeItem.addActionListener(e -> changeBoardSize());
@@ -308,7 +532,7 @@ public class GameMain extends JPanel {
         resetScoreItem.addActionListener(e -> {
             crossWins = 0;
             noughtWins = 0;
-            repaint();
+            updateStatusBar();
         });
 
         JMenuItem exitItem = new JMenuItem("❌ Exit");
@@ -319,6 +543,12 @@ public class GameMain extends JPanel {
         gameMenu.addSeparator();
         gameMenu.add(pauseResumeItem);
         gameMenu.addSeparator();
+        gameMenu.add(crossComputerItem);
+        gameMenu.add(noughtComputerItem);
+        gameMenu.add(hintItem);
+        gameMenu.addSeparator();
+        gameMenu.add(repaintRegionsItem);
+        gameMenu.addSeparator();
         gameMenu.add(changeSizeItem);
         gameMenu.add(changeNamesItem);
         gameMenu.add(resetScoreItem);
@@ -345,6 +575,13 @@ public class GameMain extends JPanel {
         menuBar.add(infoMenu);
     }
 
+    /** A player was switched between human and computer */
+    private void onComputerPlayersChanged() {
+        cancelComputerMove();
+        startComputerMoveIfNeeded();
+        requestFocus();
+    }
+
     private void changeBoardSize() {
         BoardSizeSelector selector = new BoardSizeSelector(parentFrame);
         selector.setVisible(true);
@@ -354,7 +591,7 @@ public class GameMain extends JPanel {
             board.setBoardSize(newSize, newSize);
             updatePanelSize();
             newGame();
-            repaint();
+            repaintAll();
         }
     }
 
@@ -382,6 +619,8 @@ public class GameMain extends JPanel {
                 "• Intelligent screen size adaptation\n" +
                 "• Multiple board sizes (3x3, 4x4, 5x5)\n" +
                 "• Custom player names with random generator\n" +
+                "• Computer opponent for X and/or O (Game menu)\n" +
+                "• Move hints with a heat map (Game menu)\n" +
                 "• Turn timer (10 seconds per turn)\n" +
                 "• Pause/Resume functionality\n" +
                 "• Score tracking with player names\n" +
@@ -396,12 +635,13 @@ public class GameMain extends JPanel {
                 "• Ctrl+N: New Game\n" +
                 "• Ctrl+P: Change Player Names\n" +
                 "• Ctrl+R: Reset Score\n" +
+                "• Ctrl+H: Hint\n" +
                 "• Click cells to make moves\n\n" +
                 "Current Auto-Layout Info:\n" +
-                "• Cell size: " + Cell.SIZE + "px\n" +
-                "• Board size: " + Board.CANVAS_WIDTH + "x" + Board.CANVAS_HEIGHT + "px\n" +
+                "• Cell size: " + board.getCurrentCellSize() + "px\n" +
+                "• Board size: " + board.getCanvasWidth() + "x" + board.getCanvasHeight() + "px\n" +
                 "• Screen utilization: " + String.format("%.1f", utilization) + "%\n" +
-                "• Optimized for your " + Board.ROWS + "x" + Board.COLS + " board";
+                "• Optimized for your " + board.getRows() + "x" + board.getCols() + " board";
 
         JOptionPane.showMessageDialog(this, message, "About", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -488,8 +728,36 @@ public class GameMain extends JPanel {
             g.drawString(instructionText, x, y);
         }
 
-        // Update status bar with enhanced information
+        if (showRepaintRegions) {
+            Rectangle clip = g.getClipBounds();
+            if (clip != null) {
+                g.setColor(REPAINT_COLORS[repaintCount++ % REPAINT_COLORS.length]);
+                g.drawRect(clip.x, clip.y, clip.width - 1, clip.height - 1);
+                if (winAnimator.isRunning()) {
+                    g.setFont(FONT_STATUS);
+                    g.drawString(String.format("%.1f ms/frame", winAnimator.getAverageFrameMillis()),
+                            clip.x + 4, clip.y + 14);
+                }
+            }
+        }
+    }
+
+    /** Repaint only the parts of the board that changed, and refresh the status bar */
+    private void repaintChanges() {
+        Rectangle dirty = board.takeDirtyRegion();
+        if (dirty != null) {
+            repaint(dirty);
+        }
+        updateStatusBar();
+        winAnimator.update(board, isPaused);
+    }
+
+    /** Repaint the whole panel and refresh the status bar */
+    private void repaintAll() {
+        board.takeDirtyRegion();
+        repaint();
         updateStatusBar();
+        winAnimator.update(board, isPaused);
     }
 
     private void updateStatusBar() {
@@ -516,7 +784,7 @@ public class GameMain extends JPanel {
 
         if (!isPaused && currentState == State.PLAYING) {
             statusText += " | Score: " + playerXName + " " + crossWins + " - " + noughtWins + " " + playerOName;
-            statusText += " | " + Board.ROWS + "x" + Board.COLS + " (" + Board.WIN_CONDITION + " to win)";
+            statusText += " | " + board.getRows() + "x" + board.getCols() + " (" + board.getWinCondition() + " to win)";
         } else if (!isPaused && (currentState == State.CROSS_WON || currentState == State.NOUGHT_WON || currentState == State.DRAW)) {
             statusText += " | Score: " + playerXName + " " + crossWins + " - " + noughtWins + " " + playerOName;
         }
@@ -581,8 +849,8 @@ public class GameMain extends JPanel {
                     System.out.println("👥 Players: " + playerXName + " (❌) vs " + playerOName + " (⭕)");
                     System.out.println("✓ Screen resolution detected and analyzed");
                     System.out.println("✓ Usable screen area calculated");
-                    System.out.println("✓ Optimal cell size determined: " + Cell.SIZE + "px");
-                    System.out.println("✓ Board dimensions: " + Board.CANVAS_WIDTH + "x" + Board.CANVAS_HEIGHT + "px");
+                    System.out.println("✓ Optimal cell size determined: " + gameMain.board.getCurrentCellSize() + "px");
+                    System.out.println("✓ Board dimensions: " + gameMain.board.getCanvasWidth() + "x" + gameMain.board.getCanvasHeight() + "px");
                     System.out.println("✓ Screen utilization: " + String.format("%.1f", gameMain.board.getScreenUtilizationRatio()) + "%");
                     System.out.println("✓ Window is resizable for user preference");
                     System.out.println("✓ Anti-aliasing enabled for smooth graphics");
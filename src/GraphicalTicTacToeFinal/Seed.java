@@ -38,7 +38,7 @@ public enum Seed {   // to save as "Seed.java"
             } else {
                 System.err.println("Couldn't find file " + imageFilename);
             }
-            img = icon.getImage();
+            img = (icon != null) ? icon.getImage() : null;  // null: cells draw the display name
         }
     }
 
@@ -0,0 +1,76 @@
+package GraphicalTicTacToeFinal;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seed images pre-scaled to the seed size, one per (Seed, size, scale factor)
+ * in a format compatible with the screen, so painting a cell is a plain 1:1
+ * blit instead of a bilinear scale of the GIF. If an image is missing, the
+ * seed's text fallback is rasterized instead, so no font layout is done per
+ * paint either. Each board owns its cache, so resizing one board never
+ * evicts sprites another board still paints. Used on the Event Dispatch
+ * Thread only.
+ */
+final class SeedSprites {
+    private final Map<Seed, List<Sprite>> sprites = new EnumMap<>(Seed.class);
+
+    /**
+     * Sprite of the seed for a seed size (in user space) on the given screen
+     * and scale, rendered on first use.
+     */
+    Image get(Seed seed, int size, GraphicsConfiguration config, double scale) {
+        List<Sprite> list = sprites.computeIfAbsent(seed, s -> new ArrayList<>());
+        for (Sprite sprite : list) {
+            if (sprite.size == size && sprite.scale == scale && sprite.config == config) {
+                return sprite.image;
+            }
+        }
+
+        // Rendered at device resolution, once, with the quality of the old per-paint drawing
+        int pixels = (int) Math.ceil(size * scale);
+        BufferedImage image = config.createCompatibleImage(pixels, pixels, Transparency.TRANSLUCENT);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        if (seed.getImage() != null) {
+            g2d.drawImage(seed.getImage(), 0, 0, pixels, pixels, null);
+        } else {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.scale(scale, scale);
+            Cell.drawTextFallback(g2d, seed, size, 0, 0);
+        }
+        g2d.dispose();
+        list.add(new Sprite(size, scale, config, image));
+        return image;
+    }
+
+    /** Drop the sprites of a seed size the owner's cells no longer use (they were resized) */
+    void invalidate(int size) {
+        for (List<Sprite> list : sprites.values()) {
+            for (Iterator<Sprite> it = list.iterator(); it.hasNext(); ) {
+                if (it.next().size == size) it.remove();
+            }
+        }
+    }
+
+    private static final class Sprite {
+        final int size;
+        final double scale;
+        final GraphicsConfiguration config;
+        final Image image;
+
+        Sprite(int size, double scale, GraphicsConfiguration config, Image image) {
+            this.size = size;
+            this.scale = scale;
+            this.config = config;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package GraphicalTicTacToeFinal;
+
+import java.awt.Rectangle;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Drives the pulsing winning line: a Swing timer repaints just the line's
+ * bounding box at a fixed frame rate while the board shows the animation,
+ * and is stopped the rest of the time, so an idle game costs no CPU.
+ * The time between frames is measured, for the debug overlay.
+ * Used on the Event Dispatch Thread only.
+ */
+public class WinLineAnimator {
+    /** Frames per second; the pulse is slow, so this is smooth enough */
+    public static final int TARGET_FPS = 30;
+
+    private final JComponent component;
+    private final Timer timer;
+    private Board board;
+
+    // Frame-time measurement (nanoseconds)
+    private long lastFrame = 0;
+    private double averageFrame = 0;
+
+    public WinLineAnimator(JComponent component) {
+        this.component = component;
+        this.timer = new Timer(1000 / TARGET_FPS, e -> nextFrame());
+        timer.setCoalesce(true);  // drop frames rather than queue them if the EDT falls behind
+    }
+
+    /**
+     * Run the animation if the board shows a winning line and the game is not
+     * paused, else stop it. Call after anything that may change either.
+     */
+    public void update(Board board, boolean paused) {
+        this.board = board;
+        boolean animate = !paused && board.isShowingWinAnimation() && board.getWinningLineBounds() != null;
+        if (animate && !timer.isRunning()) {
+            lastFrame = 0;
+            timer.start();
+        } else if (!animate && timer.isRunning()) {
+            timer.stop();
+        }
+    }
+
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /** Average time between frames while running, in milliseconds (0 before the second frame) */
+    public double getAverageFrameMillis() {
+        return averageFrame / 1e6;
+    }
+
+    private void nextFrame() {
+        Rectangle bounds = board.getWinningLineBounds();
+        if (!board.isShowingWinAnimation() || bounds == null || !component.isShowing()) {
+            timer.stop();
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastFrame != 0) {
+            long frame = now - lastFrame;
+            averageFrame = (averageFrame == 0) ? frame : 0.9 * averageFrame + 0.1 * frame;
+        }
+        lastFrame = now;
+        component.repaint(bounds);
+    }
+}
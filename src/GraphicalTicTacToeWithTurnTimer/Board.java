@@ -1,5 +1,7 @@
 package GraphicalTicTacToeWithTurnTimer;
 
+import TicTacToeEngine.GameEngine;
+
 import java.awt.*;
 /**
  * The Board class models the ROWS-by-COLS game board.
@@ -19,6 +21,11 @@ public class Board {
     // Define properties (package-visible)
     /** Composes of 2D array of ROWS-by-COLS Cell instances */
     Cell[][] cells;
+    /** The shared headless engine, which owns the game rules */
+    GameEngine engine;
+
+    /** Engine state codes mapped to State (same order) */
+    private static final State[] STATES = State.values();
 
     /** Constructor to initialize the game board */
     public Board() {
@@ -27,6 +34,7 @@ public class Board {
 
     /** Initialize the game objects (run once) */
     public void initGame() {
+        engine = new GameEngine(ROWS, COLS, 3);
         cells = new Cell[ROWS][COLS]; // allocate the array
         for (int row = 0; row < ROWS; ++row) {
             for (int col = 0; col < COLS; ++col) {
@@ -44,6 +52,7 @@ public class Board {
                 cells[row][col].newGame(); // clear the cell content
             }
         }
+        engine.newGame();
     }
 
     /**
@@ -55,33 +64,10 @@ public class Board {
         // Update game board
         cells[selectedRow][selectedCol].content = player;
 
-        // Compute and return the new game state
-        if (cells[selectedRow][0].content == player  // 3-in-the-row
-                && cells[selectedRow][1].content == player
-                && cells[selectedRow][2].content == player
-                || cells[0][selectedCol].content == player // 3-in-the-column
-                && cells[1][selectedCol].content == player
-                && cells[2][selectedCol].content == player
-                || selectedRow == selectedCol     // 3-in-the-diagonal
-                && cells[0][0].content == player
-                && cells[1][1].content == player
-                && cells[2][2].content == player
-                || selectedRow + selectedCol == 2 // 3-in-the-opposite-diagonal
-                && cells[0][2].content == player
-                && cells[1][1].content == player
-                && cells[2][0].content == player) {
-            return (player == Seed.CROSS) ? State.CROSS_WON : State.NOUGHT_WON;
-        } else {
-            // Nobody win. Check for DRAW (all cells occupied) or PLAYING.
-            for (int row = 0; row < ROWS; ++row) {
-                for (int col = 0; col < COLS; ++col) {
-                    if (cells[row][col].content == Seed.NO_SEED) {
-                        return State.PLAYING; // still have empty cells
-                    }
-                }
-            }
-            return State.DRAW; // no empty cell, it's a draw
-        }
+        // Let the shared engine compute the new game state
+        int state = engine.stepGame((player == Seed.CROSS) ? GameEngine.CROSS : GameEngine.NOUGHT,
+                selectedRow, selectedCol);
+        return STATES[state];
     }
 
     /** Paint itself on the graphics canvas, given the Graphics context */
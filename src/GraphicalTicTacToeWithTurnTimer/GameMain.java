@@ -105,11 +105,7 @@ public class GameMain extends JPanel {
 
     public void newGame() {
         // Reset board
-        for (int row = 0; row < Board.ROWS; ++row) {
-            for (int col = 0; col < Board.COLS; ++col) {
-                board.cells[row][col].content = Seed.NO_SEED;
-            }
-        }
+        board.newGame();
 
         // Reset game state
         currentPlayer = Seed.CROSS;
@@ -1,5 +1,7 @@
 package GraphicsSimpleOO;
 
+import TicTacToeEngine.GameEngine;
+
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
@@ -44,6 +46,7 @@ public class TTTGraphics extends JFrame {
     }
     private Seed currentPlayer; // the current player
     private Seed[][] board;     // Game board of ROWS-by-COLS cells
+    private GameEngine engine;  // shared headless engine, which owns the rules
 
     // UI Components
     private GamePanel gamePanel; // Drawing canvas (JPanel) for the game board
@@ -108,6 +111,7 @@ public class TTTGraphics extends JFrame {
     /** Initialize the Game (run once) */
     public void initGame() {
         board = new Seed[ROWS][COLS]; // allocate array
+        engine = new GameEngine(ROWS, COLS, 3);
     }
 
     /** Reset the game-board contents and the status, ready for new game */
@@ -117,6 +121,7 @@ public class TTTGraphics extends JFrame {
                 board[row][col] = Seed.NO_SEED; // all cells empty
             }
         }
+        engine.newGame();
         currentPlayer = Seed.CROSS;    // cross plays first
         currentState  = State.PLAYING; // ready to play
     }
@@ -130,33 +135,10 @@ public class TTTGraphics extends JFrame {
         // Update game board
         board[selectedRow][selectedCol] = player;
 
-        // Compute and return the new game state
-        if (board[selectedRow][0] == player  // 3-in-the-row
-                && board[selectedRow][1] == player
-                && board[selectedRow][2] == player
-                || board[0][selectedCol] == player // 3-in-the-column
-                && board[1][selectedCol] == player
-                && board[2][selectedCol] == player
-                || selectedRow == selectedCol  // 3-in-the-diagonal
-                && board[0][0] == player
-                && board[1][1] == player
-                && board[2][2] == player
-                || selectedRow + selectedCol == 2 // 3-in-the-opposite-diagonal
-                && board[0][2] == player
-                && board[1][1] == player
-                && board[2][0] == player) {
-            return (player == Seed.CROSS) ? State.CROSS_WON : State.NOUGHT_WON;
-        } else {
-            // Nobody win. Check for DRAW (all cells occupied) or PLAYING.
-            for (int row = 0; row < ROWS; ++row) {
-                for (int col = 0; col < COLS; ++col) {
-                    if (board[row][col] == Seed.NO_SEED) {
-                        return State.PLAYING; // still have empty cells
-                    }
-                }
-            }
-            return State.DRAW; // no empty cell, it's a draw
-        }
+        // Let the shared engine compute the new game state
+        int state = engine.stepGame((player == Seed.CROSS) ? GameEngine.CROSS : GameEngine.NOUGHT,
+                selectedRow, selectedCol);
+        return State.values()[state]; // same order as the engine's state codes
     }
 
     /**
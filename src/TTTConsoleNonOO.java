@@ -1,3 +1,5 @@
+import TicTacToeEngine.GameEngine;
+
 import java.util.Scanner;
 /**
  * Tic-Tac-Toe: Two-player, console-based, non-graphics, non-OO version.
@@ -22,6 +24,8 @@ public class TTTConsoleNonOO {
     // The game board
     public static final int ROWS = 3, COLS = 3;  // number of rows/columns
     public static int[][] board = new int[ROWS][COLS]; // EMPTY, CROSS, NOUGHT
+    // The shared headless engine, which owns the rules (same int codes as above)
+    public static GameEngine engine = new GameEngine(ROWS, COLS, 3);
 
     // The current player
     public static int currentPlayer;  // CROSS, NOUGHT
@@ -90,6 +94,7 @@ public class TTTConsoleNonOO {
                 board[row][col] = NO_SEED;  // all cells empty
             }
         }
+        engine.newGame();
         currentPlayer = CROSS;   // cross plays first
         currentState  = PLAYING; // ready to play
 
@@ -139,33 +144,8 @@ public class TTTConsoleNonOO {
         // Update game board
         board[selectedRow][selectedCol] = player;
 
-        // Compute and return the new game state
-        if (board[selectedRow][0] == player       // 3-in-the-row
-                && board[selectedRow][1] == player
-                && board[selectedRow][2] == player
-                || board[0][selectedCol] == player // 3-in-the-column
-                && board[1][selectedCol] == player
-                && board[2][selectedCol] == player
-                || selectedRow == selectedCol      // 3-in-the-diagonal
-                && board[0][0] == player
-                && board[1][1] == player
-                && board[2][2] == player
-                || selectedRow + selectedCol == 2  // 3-in-the-opposite-diagonal
-                && board[0][2] == player
-                && board[1][1] == player
-                && board[2][0] == player) {
-            return (player == CROSS) ? CROSS_WON : NOUGHT_WON;
-        } else {
-            // Nobody win. Check for DRAW (all cells occupied) or PLAYING.
-            for (int row = 0; row < ROWS; ++row) {
-                for (int col = 0; col < COLS; ++col) {
-                    if (board[row][col] == NO_SEED) {
-                        return PLAYING; // still have empty cells
-                    }
-                }
-            }
-            return DRAW; // no empty cell, it's a draw
-        }
+        // Let the shared engine compute the new game state
+        return engine.stepGame(player, selectedRow, selectedCol);
     }
 
     /** Print the game board */
@@ -0,0 +1,326 @@
+package TicTacToeEngine;
+
+import java.util.Arrays;
+
+/**
+ * Headless bitboard game engine.
+ * The position is one 64-bit occupancy mask per player. Alongside it the board
+ * keeps per-line stone counters and a placed-stone counter, so a move or an
+ * undo only touches the lines through one cell and win/draw checks are O(1).
+ * A 64-bit Zobrist hash of the position is maintained by XOR on every move,
+ * and a move stack lets makeMove()/unmakeMove() walk a game back and forth in O(1).
+ */
+public class BitBoard {
+    // Player / cell content codes (same order as the Seed enum)
+    public static final int CROSS   = 0;
+    public static final int NOUGHT  = 1;
+    public static final int NO_SEED = 2;
+
+    // Game state codes (same order as the State enum)
+    public static final int PLAYING    = 0;
+    public static final int DRAW       = 1;
+    public static final int CROSS_WON  = 2;
+    public static final int NOUGHT_WON = 3;
+
+    /** Move stack entry of a passed turn */
+    public static final int PASS = 64;
+
+    private final Geometry geometry;
+    /** Occupancy mask of each player, indexed by CROSS / NOUGHT */
+    private final long[] occupied = new long[2];
+    /** Win mask that ended the game, or 0 */
+    private long winningMask;
+
+    /** Stones of each player on each win line */
+    private final byte[][] lineCount;
+    /** Number of lines still free of the opponent's stones, per player */
+    private final int[] openLines = new int[2];
+    /** Sum of Geometry.lineWeights[stones] over the lines still open, per player */
+    private final int[] lineScore = new int[2];
+    /** Number of stones on the board */
+    private int stoneCount;
+    /** Zobrist hash of the stones on the board and the player to move */
+    private long hash;
+
+    /** Player whose turn it is */
+    private int toMove;
+    /** Move stack: (cell << 1 | player who moved), cell is PASS for a pass */
+    private int[] moves;
+    private int moveCount;
+
+    public BitBoard(Geometry geometry) {
+        this.geometry = geometry;
+        this.lineCount = new byte[2][geometry.winMasks.length];
+        this.moves = new int[geometry.cellCount * 2];
+        clear();
+    }
+
+    public BitBoard(int rows, int cols, int winCondition) {
+        this(Geometry.of(rows, cols, winCondition));
+    }
+
+    /** Remove all stones, ready for new game (CROSS to move) */
+    public void clear() {
+        occupied[CROSS] = 0L;
+        occupied[NOUGHT] = 0L;
+        winningMask = 0L;
+        Arrays.fill(lineCount[CROSS], (byte) 0);
+        Arrays.fill(lineCount[NOUGHT], (byte) 0);
+        openLines[CROSS] = geometry.winMasks.length;
+        openLines[NOUGHT] = geometry.winMasks.length;
+        lineScore[CROSS] = geometry.winMasks.length * geometry.lineWeights[0];
+        lineScore[NOUGHT] = geometry.winMasks.length * geometry.lineWeights[0];
+        stoneCount = 0;
+        hash = 0L;
+        toMove = CROSS;
+        moveCount = 0;
+    }
+
+    /**
+     * The given player puts a stone on (row, col), which must be empty.
+     * Return the new game state (PLAYING, DRAW, CROSS_WON, NOUGHT_WON).
+     */
+    public int play(int player, int row, int col) {
+        return play(player, geometry.index(row, col));
+    }
+
+    /**
+     * Same as play(player, row, col) with a bit index as the cell.
+     * If it is not the given player's turn (e.g. the other player's time ran
+     * out), a pass is recorded first so unmakeMove() can restore the turn.
+     */
+    public int play(int player, int cell) {
+        if (player != toMove) {
+            passTurn();
+        }
+        return makeMove(cell);
+    }
+
+    /**
+     * The player to move puts a stone on the given bit index, which must be empty,
+     * and the turn passes to the opponent. O(1) apart from the lines through the cell.
+     * Return the new game state (PLAYING, DRAW, CROSS_WON, NOUGHT_WON).
+     */
+    public int makeMove(int cell) {
+        push(cell << 1 | toMove);
+        int state = place(toMove, cell);
+        toMove ^= 1;
+        hash ^= geometry.sideKey;
+        return state;
+    }
+
+    /** Give the turn to the opponent without placing a stone */
+    public void passTurn() {
+        push(PASS << 1 | toMove);
+        toMove ^= 1;
+        hash ^= geometry.sideKey;
+    }
+
+    /**
+     * Take back the last makeMove() or passTurn(), restoring the stone, the
+     * player to move, the win state, the line counters and the hash.
+     * Return the bit index that was freed, or PASS.
+     */
+    public int unmakeMove() {
+        int entry = moves[--moveCount];
+        int cell = entry >> 1;
+        if (cell != PASS) {
+            remove(cell);
+        }
+        toMove = entry & 1;
+        hash ^= geometry.sideKey;
+        return cell;
+    }
+
+    /** Number of moves (including passes) that unmakeMove() can take back */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Bit index of the i-th move played (PASS for a pass) */
+    public int getMove(int i) {
+        return moves[i] >> 1;
+    }
+
+    /** Player whose turn it is */
+    public int getToMove() {
+        return toMove;
+    }
+
+    private void push(int entry) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);  // only grows with many passes
+        }
+        moves[moveCount++] = entry;
+    }
+
+    /** Put a stone and update counters; return the new game state */
+    private int place(int player, int cell) {
+        occupied[player] |= 1L << cell;
+        ++stoneCount;
+        hash ^= geometry.zobrist[player][cell];
+
+        // Only lines through the new stone change
+        byte[] own = lineCount[player];
+        byte[] other = lineCount[player ^ 1];
+        int[] weights = geometry.lineWeights;
+        int state = PLAYING;
+        for (int line : geometry.cellLines[cell]) {
+            int count = own[line];
+            if (other[line] == 0) {
+                lineScore[player] += weights[count + 1] - weights[count];
+            }
+            if (own[line]++ == 0) {
+                --openLines[player ^ 1];  // opponent can no longer win here
+                lineScore[player ^ 1] -= weights[other[line]];
+            }
+            if (own[line] == geometry.winCondition && state == PLAYING) {
+                winningMask = geometry.winMasks[line];
+                state = (player == CROSS) ? CROSS_WON : NOUGHT_WON;
+            }
+        }
+        if (state == PLAYING && stoneCount == geometry.cellCount) {
+            state = DRAW;
+        }
+        return state;
+    }
+
+    /** Remove the stone on the given bit index, reversing place() */
+    private void remove(int cell) {
+        long bit = 1L << cell;
+        int player = ((occupied[CROSS] & bit) != 0) ? CROSS : NOUGHT;
+        occupied[player] &= ~bit;
+        --stoneCount;
+        hash ^= geometry.zobrist[player][cell];
+        winningMask = 0L;  // no move is ever played after a win
+
+        byte[] own = lineCount[player];
+        byte[] other = lineCount[player ^ 1];
+        int[] weights = geometry.lineWeights;
+        for (int line : geometry.cellLines[cell]) {
+            int count = --own[line];
+            if (other[line] == 0) {
+                lineScore[player] -= weights[count + 1] - weights[count];
+            }
+            if (count == 0) {
+                ++openLines[player ^ 1];
+                lineScore[player ^ 1] += weights[other[line]];
+            }
+        }
+    }
+
+    /** Current game state, derived from the counters in O(1) */
+    public int getState() {
+        if (winningMask != 0L) {
+            return ((occupied[CROSS] & winningMask) == winningMask) ? CROSS_WON : NOUGHT_WON;
+        }
+        return (stoneCount == geometry.cellCount) ? DRAW : PLAYING;
+    }
+
+    /** Zobrist hash of the current position */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Canonical key (stones and player to move) and transform of the position
+     * under the board's symmetries, packed as described in Symmetry.canonicalize().
+     */
+    public long canonicalize() {
+        long canonical = geometry.symmetry.canonicalize(occupied[CROSS], occupied[NOUGHT]);
+        return (toMove == NOUGHT) ? canonical ^ (geometry.sideKey & ~7L) : canonical;
+    }
+
+    /** Number of stones on the board */
+    public int getStoneCount() {
+        return stoneCount;
+    }
+
+    /** Mask of empty cells where the given player would complete a line right away */
+    public long getWinningCells(int player) {
+        return getLineCells(player, geometry.winCondition - 1);
+    }
+
+    /**
+     * Mask of empty cells on lines holding exactly the given number of the
+     * player's stones and none of the opponent's (e.g. winCondition - 2 gives
+     * the cells that make a winning threat).
+     */
+    public long getLineCells(int player, int stones) {
+        byte[] own = lineCount[player];
+        byte[] other = lineCount[player ^ 1];
+        long cells = 0L;
+        for (int line = 0; line < own.length; ++line) {
+            if (own[line] == stones && other[line] == 0) {
+                cells |= geometry.winMasks[line];
+            }
+        }
+        return cells & getEmpty();
+    }
+
+    /** Independent copy of this board, including its move stack */
+    public BitBoard copy() {
+        BitBoard copy = new BitBoard(geometry);
+        for (int i = 0; i < moveCount; ++i) {
+            int cell = moves[i] >> 1;
+            if (cell == PASS) {
+                copy.passTurn();
+            } else {
+                copy.makeMove(cell);
+            }
+        }
+        return copy;
+    }
+
+    /** Number of win lines that contain no stone of the given player's opponent */
+    public int getOpenLines(int player) {
+        return openLines[player];
+    }
+
+    /**
+     * Cheap static evaluation from the given player's view:
+     * lines still open for the player minus lines still open for the opponent.
+     */
+    public int evaluateOpenLines(int player) {
+        return openLines[player] - openLines[player ^ 1];
+    }
+
+    /**
+     * Static evaluation from the given player's view, kept up to date on every move:
+     * each line still open to a player is worth more the more stones it holds.
+     */
+    public int evaluate(int player) {
+        return lineScore[player] - lineScore[player ^ 1];
+    }
+
+    /** Content of (row, col): CROSS, NOUGHT or NO_SEED */
+    public int get(int row, int col) {
+        long bit = geometry.bit(row, col);
+        if ((occupied[CROSS] & bit) != 0) return CROSS;
+        if ((occupied[NOUGHT] & bit) != 0) return NOUGHT;
+        return NO_SEED;
+    }
+
+    public boolean isEmpty(int row, int col) {
+        return ((occupied[CROSS] | occupied[NOUGHT]) & geometry.bit(row, col)) == 0;
+    }
+
+    /** Occupancy mask of the given player */
+    public long getStones(int player) {
+        return occupied[player];
+    }
+
+    /** Mask of all empty cells */
+    public long getEmpty() {
+        return ~(occupied[CROSS] | occupied[NOUGHT]) & geometry.fullMask;
+    }
+
+    /** Win mask completed by the last winning move, or 0 if nobody has won */
+    public long getWinningMask() {
+        return winningMask;
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+}
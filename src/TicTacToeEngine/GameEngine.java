@@ -0,0 +1,132 @@
+package TicTacToeEngine;
+
+/**
+ * Headless Tic-Tac-Toe rules shared by all front-ends (console, Swing, tools).
+ * This package has no java.awt / javax.swing dependency, so simulators and
+ * servers can run games without loading the AWT toolkit.
+ *
+ * Players, cell contents and game states are plain int codes; they follow the
+ * order of the front-ends' Seed (CROSS, NOUGHT, NO_SEED) and
+ * State (PLAYING, DRAW, CROSS_WON, NOUGHT_WON) enums.
+ */
+public class GameEngine {
+    // Player / cell content codes
+    public static final int CROSS   = BitBoard.CROSS;
+    public static final int NOUGHT  = BitBoard.NOUGHT;
+    public static final int NO_SEED = BitBoard.NO_SEED;
+
+    // Game state codes
+    public static final int PLAYING    = BitBoard.PLAYING;
+    public static final int DRAW       = BitBoard.DRAW;
+    public static final int CROSS_WON  = BitBoard.CROSS_WON;
+    public static final int NOUGHT_WON = BitBoard.NOUGHT_WON;
+
+    private final BitBoard board;
+    private int currentState = PLAYING;
+
+    /** Classic 3x3 game, 3 in a row to win */
+    public GameEngine() {
+        this(3, 3, 3);
+    }
+
+    public GameEngine(int rows, int cols, int winCondition) {
+        this.board = new BitBoard(rows, cols, winCondition);
+    }
+
+    /** Clear the board, ready for new game */
+    public void newGame() {
+        board.clear();
+        currentState = PLAYING;
+    }
+
+    /** Check if (row, col) is on the board, empty, and the game is still running */
+    public boolean isValidMove(int row, int col) {
+        Geometry geometry = board.getGeometry();
+        return currentState == PLAYING
+                && row >= 0 && row < geometry.rows && col >= 0 && col < geometry.cols
+                && board.isEmpty(row, col);
+    }
+
+    /**
+     *  The given player makes a move on (selectedRow, selectedCol).
+     *  Compute and return the new game state (PLAYING, DRAW, CROSS_WON, NOUGHT_WON).
+     */
+    public int stepGame(int player, int selectedRow, int selectedCol) {
+        if (player != CROSS && player != NOUGHT) {
+            throw new IllegalArgumentException("Invalid player: " + player);
+        }
+        if (!isValidMove(selectedRow, selectedCol)) {
+            throw new IllegalArgumentException("Invalid move at (" + selectedRow + "," + selectedCol + ")");
+        }
+        currentState = board.play(player, selectedRow, selectedCol);
+        return currentState;
+    }
+
+    /** Current player gives up the turn (e.g. the turn timer ran out) */
+    public void passTurn() {
+        board.passTurn();
+    }
+
+    /**
+     * Take back the last move or pass in O(1), restoring the cell, the player
+     * to move, the game state, the line counters and the hash.
+     * Return the freed bit index (row * cols + col), or BitBoard.PASS.
+     */
+    public int unmakeMove() {
+        if (board.getMoveCount() == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int cell = board.unmakeMove();
+        currentState = board.getState();
+        return cell;
+    }
+
+    /** Player whose turn it is */
+    public int getCurrentPlayer() {
+        return board.getToMove();
+    }
+
+    /** Content of (row, col): CROSS, NOUGHT or NO_SEED */
+    public int get(int row, int col) {
+        return board.get(row, col);
+    }
+
+    public int getState() {
+        return currentState;
+    }
+
+    /** Win mask completed by the winning move (bit row * cols + col), or 0 */
+    public long getWinningMask() {
+        return board.getWinningMask();
+    }
+
+    /** 64-bit Zobrist hash of the current position, maintained incrementally */
+    public long getHash() {
+        return board.getHash();
+    }
+
+    /**
+     * Canonical key of the position under rotations/reflections, with the
+     * transform used packed in the low bits (see Symmetry.canonicalize()).
+     */
+    public long canonicalize() {
+        return board.canonicalize();
+    }
+
+    public int getRows() {
+        return board.getGeometry().rows;
+    }
+
+    public int getCols() {
+        return board.getGeometry().cols;
+    }
+
+    public int getWinCondition() {
+        return board.getGeometry().winCondition;
+    }
+
+    /** The underlying bitboard, for search and analysis code */
+    public BitBoard getBitBoard() {
+        return board;
+    }
+}
@@ -0,0 +1,241 @@
+package TicTacToeEngine;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Headless bulk game simulator: plays N games between two pluggable players
+ * on all cores and streams aggregated results once a second.
+ * Each worker thread owns a SplittableRandom, one BitBoard reused for every
+ * game, and its own players, so random and greedy games allocate nothing.
+ * Only the engine package is used (no Swing, sounds or images).
+ *
+ * Usage: java TicTacToeEngine.GameSimulator [--games N] [--size RxC] [--win K]
+ *        [--x PLAYER] [--o PLAYER] [--threads N] [--seed S]
+ * PLAYER is random, greedy, search[:millisPerMove] or mcts[:millisPerMove] (default 10 ms).
+ */
+public class GameSimulator {
+    /** Games a worker plays between merges into the shared totals */
+    private static final int BATCH = 1 << 14;
+
+    private final Geometry geometry;
+    private final String crossPlayer;
+    private final String noughtPlayer;
+    private final long[] moveTimes;
+
+    // Shared totals, merged once per batch
+    private final AtomicLongArray results = new AtomicLongArray(3);  // CROSS wins, NOUGHT wins, draws
+    private final AtomicLongArray lengths;                           // games by number of moves
+    private final AtomicLongArray openings;                          // per first cell: games, X wins, O wins
+    private final AtomicLong nextGame = new AtomicLong();
+
+    public GameSimulator(Geometry geometry, String crossPlayer, String noughtPlayer) {
+        this.geometry = geometry;
+        this.crossPlayer = crossPlayer;
+        this.noughtPlayer = noughtPlayer;
+        validatePlayer(crossPlayer);  // reject bad names up front
+        validatePlayer(noughtPlayer);
+        this.moveTimes = new long[] {moveTime(crossPlayer), moveTime(noughtPlayer)};
+        this.lengths = new AtomicLongArray(geometry.cellCount + 1);
+        this.openings = new AtomicLongArray(geometry.cellCount * 3);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = 1_000_000;
+        int rows = 3, cols = 3, win = 0;
+        String cross = "random", nought = "random";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games": games = Long.parseLong(value); break;
+                case "--size":
+                    String[] size = value.toLowerCase(Locale.ROOT).split("x");
+                    rows = Integer.parseInt(size[0]);
+                    cols = Integer.parseInt(size[size.length - 1]);
+                    break;
+                case "--win": win = Integer.parseInt(value); break;
+                case "--x": cross = value; break;
+                case "--o": nought = value; break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        Geometry geometry = Geometry.of(rows, cols, (win > 0) ? win : Geometry.winConditionFor(rows));
+        new GameSimulator(geometry, cross, nought).run(games, threads, seed);
+    }
+
+    /**
+     * Player by name: "random", "greedy", "search[:millisPerMove]" or "mcts[:millisPerMove]".
+     * Search players use one thread each, since the simulator fills every core.
+     */
+    public static MoveSearch createPlayer(String name, Geometry geometry, SplittableRandom random) {
+        String[] parts = name.split(":");
+        switch (parts[0]) {
+            case "random": return new RandomPlayer(geometry, random);
+            case "greedy": return new GreedyPlayer(geometry, random);
+            case "search":
+                if (geometry.cellCount <= MoveSearch.SOLVE_LIMIT) {
+                    return Tablebase.openIfPresent(new Solver(geometry));
+                }
+                IterativeSearch search = new IterativeSearch(geometry);
+                return ThreatSearch.appliesTo(geometry) ? new ThreatSearch(search) : search;
+            case "mcts": return new MonteCarloSearch(geometry);
+            default: throw new IllegalArgumentException("Unknown player: " + name);
+        }
+    }
+
+    /**
+     * Reject a bad player name (see createPlayer) or time per move, without
+     * building the player: search tables, trees and the tablebase are big.
+     */
+    static void validatePlayer(String name) {
+        switch (name.split(":")[0]) {
+            case "random":
+            case "greedy":
+            case "search":
+            case "mcts":
+                moveTime(name);
+                break;
+            default: throw new IllegalArgumentException("Unknown player: " + name);
+        }
+    }
+
+    /**
+     * Time per move of a player name, in nanoseconds (0 for players that ignore it).
+     * Throws IllegalArgumentException unless the time is a positive number of milliseconds.
+     */
+    static long moveTime(String name) {
+        if (!name.startsWith("search") && !name.startsWith("mcts")) return 0;
+        int colon = name.indexOf(':');
+        if (colon < 0) return 10 * 1_000_000L;
+        long millis;
+        try {
+            millis = Long.parseLong(name.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            millis = 0;
+        }
+        if (millis <= 0 || millis > Long.MAX_VALUE / 1_000_000L) {
+            throw new IllegalArgumentException("Invalid time per move: " + name
+                    + " (expected search[:millisPerMove] or mcts[:millisPerMove], millis > 0)");
+        }
+        return millis * 1_000_000L;
+    }
+
+    /** Play the games on the given number of threads, printing progress and a final report */
+    public void run(long games, int threads, long seed) throws InterruptedException {
+        System.out.printf("%d games, %dx%d (%d in a row), X: %s, O: %s, %d threads, seed %d%n",
+                games, geometry.rows, geometry.cols, geometry.winCondition,
+                crossPlayer, noughtPlayer, threads, seed);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; ++i) {
+            SplittableRandom random = seeds.split();
+            pool.execute(() -> work(games, random));
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+            printProgress(start);
+        }
+        printProgress(start);
+        printReport();
+    }
+
+    /** One worker: claim batches of games until all are played */
+    private void work(long games, SplittableRandom random) {
+        MoveSearch[] players = {
+                createPlayer(crossPlayer, geometry, random),
+                createPlayer(noughtPlayer, geometry, random)};
+        BitBoard board = new BitBoard(geometry);
+        long[] localResults = new long[3];
+        long[] localLengths = new long[lengths.length()];
+        long[] localOpenings = new long[openings.length()];
+
+        long first;
+        while ((first = nextGame.getAndAdd(BATCH)) < games) {
+            long count = Math.min(BATCH, games - first);
+            for (long game = 0; game < count; ++game) {
+                board.clear();
+                int state = BitBoard.PLAYING;
+                int opening = -1;
+                while (state == BitBoard.PLAYING) {
+                    int player = board.getToMove();
+                    long deadline = (moveTimes[player] == 0) ? 0 : System.nanoTime() + moveTimes[player];
+                    int cell = players[player].bestMove(board, deadline);
+                    if (opening < 0) opening = cell;
+                    state = board.makeMove(cell);
+                }
+                int result = (state == BitBoard.CROSS_WON) ? 0 : (state == BitBoard.NOUGHT_WON) ? 1 : 2;
+                ++localResults[result];
+                ++localLengths[board.getStoneCount()];
+                ++localOpenings[opening * 3];
+                if (result < 2) ++localOpenings[opening * 3 + 1 + result];
+            }
+            flush(localResults, results);
+            flush(localLengths, lengths);
+            flush(localOpenings, openings);
+        }
+    }
+
+    /** Add local counters into the shared ones and zero them */
+    private static void flush(long[] local, AtomicLongArray shared) {
+        for (int i = 0; i < local.length; ++i) {
+            if (local[i] != 0) {
+                shared.addAndGet(i, local[i]);
+                local[i] = 0;
+            }
+        }
+    }
+
+    private long played() {
+        return results.get(0) + results.get(1) + results.get(2);
+    }
+
+    private void printProgress(long start) {
+        long played = played();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d games in %.1f s (%,.0f games/s)  X %.2f%%  O %.2f%%  draw %.2f%%%n",
+                played, seconds, played / seconds,
+                percent(results.get(0), played), percent(results.get(1), played), percent(results.get(2), played));
+    }
+
+    private void printReport() {
+        long played = played();
+        System.out.println("Game length histogram (moves: games):");
+        for (int moves = 0; moves < lengths.length(); ++moves) {
+            if (lengths.get(moves) != 0) {
+                System.out.printf("  %2d: %,d (%.2f%%)%n", moves, lengths.get(moves), percent(lengths.get(moves), played));
+            }
+        }
+
+        // First-move advantage: X's score (win 1, draw 1/2) by opening cell
+        System.out.printf("First-move advantage: X scores %.2f%% overall%n",
+                percent(2 * results.get(0) + results.get(2), 2 * played));
+        for (int row = 0; row < geometry.rows; ++row) {
+            StringBuilder line = new StringBuilder("  ");
+            for (int col = 0; col < geometry.cols; ++col) {
+                int cell = geometry.index(row, col);
+                long games = openings.get(cell * 3);
+                long score = games + openings.get(cell * 3 + 1) - openings.get(cell * 3 + 2);  // 2 * (wins + draws / 2)
+                line.append((games == 0) ? "     -" : String.format("%6.1f", percent(score, 2 * games)));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static double percent(long part, long whole) {
+        return (whole == 0) ? 0 : 100.0 * part / whole;
+    }
+}
@@ -0,0 +1,163 @@
+package TicTacToeEngine;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, shared description of a ROWS x COLS board with a given win condition.
+ * Cell (row, col) is bit (row * cols + col) of a 64-bit mask, and every
+ * WIN_CONDITION-long run of cells (horizontal, vertical and both diagonals)
+ * is precomputed once as a win mask, together with the Zobrist keys
+ * used to hash positions of this size.
+ */
+public final class Geometry {
+    /** Largest board edge supported by a single 64-bit mask */
+    public static final int MAX_SIZE = 8;
+    /** Smallest board edge */
+    public static final int MIN_SIZE = 3;
+
+    private static final Map<Integer, Geometry> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        // Precompute every square size the front-ends accept
+        for (int size = MIN_SIZE; size <= MAX_SIZE; ++size) {
+            of(size, size, winConditionFor(size));
+        }
+    }
+
+    final int rows, cols, winCondition;
+    final int cellCount;
+    /** All cells of the board */
+    final long fullMask;
+    /** Every winning run of cells */
+    final long[] winMasks;
+    /** Indices into winMasks of the runs passing through each cell */
+    final int[][] cellLines;
+    /** Evaluation weight of an open line holding 0..winCondition stones of one player */
+    final int[] lineWeights;
+    /** Zobrist key of each player's stone on each cell, indexed [player][cell] */
+    final long[][] zobrist;
+    /** Zobrist key XORed in while NOUGHT is to move */
+    final long sideKey;
+    /** Rotation/reflection tables of this board */
+    final Symmetry symmetry;
+
+    private Geometry(int rows, int cols, int winCondition) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winCondition = winCondition;
+        this.cellCount = rows * cols;
+        this.fullMask = (cellCount == 64) ? -1L : (1L << cellCount) - 1;
+
+        // Collect all runs of winCondition cells in the four directions
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        long[] masks = new long[4 * cellCount];
+        int count = 0;
+        for (int[] d : directions) {
+            for (int row = 0; row < rows; ++row) {
+                for (int col = 0; col < cols; ++col) {
+                    int endRow = row + d[0] * (winCondition - 1);
+                    int endCol = col + d[1] * (winCondition - 1);
+                    if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) continue;
+                    long mask = 0L;
+                    for (int i = 0; i < winCondition; ++i) {
+                        mask |= bit(row + d[0] * i, col + d[1] * i);
+                    }
+                    masks[count++] = mask;
+                }
+            }
+        }
+        winMasks = Arrays.copyOf(masks, count);
+
+        // For each cell, remember which runs pass through it
+        cellLines = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; ++cell) {
+            int n = 0;
+            int[] lines = new int[count];
+            for (int line = 0; line < count; ++line) {
+                if ((winMasks[line] & (1L << cell)) != 0) lines[n++] = line;
+            }
+            cellLines[cell] = Arrays.copyOf(lines, n);
+        }
+
+        // Each extra stone on an open line is worth 8 times more
+        lineWeights = new int[winCondition + 1];
+        for (int stones = 0; stones <= winCondition; ++stones) {
+            lineWeights[stones] = 1 << (3 * stones);
+        }
+
+        // Fixed seed per size, so hashes are reproducible across runs (e.g. in archives)
+        SplittableRandom random = new SplittableRandom(0x5EED_7777L ^ ((long) rows << 32 | cols << 16 | winCondition));
+        zobrist = new long[2][cellCount];
+        for (int player = 0; player < 2; ++player) {
+            for (int cell = 0; cell < cellCount; ++cell) {
+                zobrist[player][cell] = random.nextLong();
+            }
+        }
+        sideKey = random.nextLong();
+
+        symmetry = new Symmetry(this);
+    }
+
+    /** Get the shared geometry for the given dimensions and win condition */
+    public static Geometry of(int rows, int cols, int winCondition) {
+        if (rows < MIN_SIZE || cols < MIN_SIZE || rows > MAX_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between "
+                    + MIN_SIZE + " and " + MAX_SIZE + ": " + rows + "x" + cols);
+        }
+        if (winCondition < 1 || winCondition > Math.max(rows, cols)) {
+            throw new IllegalArgumentException("Invalid win condition " + winCondition
+                    + " for " + rows + "x" + cols);
+        }
+        int key = (rows << 16) | (cols << 8) | winCondition;
+        return CACHE.computeIfAbsent(key, k -> new Geometry(rows, cols, winCondition));
+    }
+
+    /** Standard win condition for a board with the given rows (3x3: 3, 4x4: 4, 5x5: 4, 6x6+: 5) */
+    public static int winConditionFor(int rows) {
+        switch (rows) {
+            case 3: return 3;
+            case 4: return 4;
+            case 5: return 4;
+            case 6: return 5;
+            default: return Math.min(rows, 5);
+        }
+    }
+
+    /** Bit index of (row, col) */
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    /** Single-bit mask of (row, col) */
+    public long bit(int row, int col) {
+        return 1L << (row * cols + col);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWinCondition() {
+        return winCondition;
+    }
+
+    /** Zobrist key of the given player's stone on the given bit index */
+    public long getZobristKey(int player, int cell) {
+        return zobrist[player][cell];
+    }
+
+    public Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+}
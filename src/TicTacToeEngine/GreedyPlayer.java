@@ -0,0 +1,54 @@
+package TicTacToeEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * One-ply player: wins at once if it can, blocks an immediate loss, otherwise
+ * plays the cell with the best static evaluation (ties broken at random).
+ * Allocation-free. Not thread-safe: use one per thread.
+ */
+public class GreedyPlayer implements MoveSearch {
+    private final Geometry geometry;
+    private final SplittableRandom random;
+
+    public GreedyPlayer(Geometry geometry, SplittableRandom random) {
+        this.geometry = geometry;
+        this.random = random;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        int me = position.getToMove();
+        long urgent = position.getWinningCells(me);
+        if (urgent == 0) urgent = position.getWinningCells(me ^ 1);
+        if (urgent != 0) return RandomPlayer.randomCell(urgent, random);
+
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (long empty = position.getEmpty(); empty != 0; empty &= empty - 1) {
+            int cell = Long.numberOfTrailingZeros(empty);
+            position.makeMove(cell);
+            int score = position.evaluate(me);
+            position.unmakeMove();
+            if (score > bestScore) {
+                best = cell;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = cell;  // each tied cell is kept with equal chance
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+}
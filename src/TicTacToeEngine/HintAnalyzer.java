@@ -0,0 +1,131 @@
+package TicTacToeEngine;
+
+/**
+ * Scores every empty cell of a position for the player to move, for hints
+ * and heat maps. Each candidate move gets an equal share of the time left
+ * and a short iterative-deepening search of the reply; proven wins and
+ * losses are kept apart from heuristic scores. A cell whose search did not
+ * finish its first iteration in time is left unscored rather than reported
+ * as even.
+ * analyze() runs on a background thread; cancel() may be called from any thread.
+ */
+public class HintAnalyzer {
+    private final Geometry geometry;
+    private final int[] moveOrder;
+    private final IterativeSearch search;
+
+    public HintAnalyzer(Geometry geometry) {
+        this.geometry = geometry;
+        this.moveOrder = Solver.orderByLines(geometry);
+        this.search = new IterativeSearch(geometry);
+    }
+
+    /**
+     * Analyze the position until the deadline. Return the result, or null if
+     * the game is over or the analysis was cancelled.
+     */
+    public Hint analyze(BitBoard position, long deadlineNanos) {
+        return analyze(position, deadlineNanos, getCancelCount());
+    }
+
+    /**
+     * As analyze(position, deadlineNanos), but cancelled by every cancel() made
+     * since getCancelCount() returned cancelCount, even one made before the
+     * analysis started.
+     */
+    public Hint analyze(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING || getCancelCount() != cancelCount) return null;
+        BitBoard board = position.copy();
+        long empty = board.getEmpty();
+        int remaining = Long.bitCount(empty);
+        int[] scores = new int[geometry.cellCount];
+        long scored = 0;
+
+        int bestMove = -1;
+        for (int cell : moveOrder) {
+            if ((empty & (1L << cell)) == 0) continue;
+            long now = System.nanoTime();
+            long slice = Math.max(deadlineNanos - now, 0) / remaining--;
+            int state = board.makeMove(cell);
+            if (state == BitBoard.PLAYING) {
+                search.bestMove(board, now + slice, cancelCount);
+                scores[cell] = -search.getLastScore();  // the reply's score is the opponent's view
+                if (search.getCompletedDepth() > 0) scored |= 1L << cell;
+            } else {
+                scores[cell] = (state == BitBoard.DRAW) ? 0 : IterativeSearch.WIN;
+                scored |= 1L << cell;
+            }
+            board.unmakeMove();
+            if (getCancelCount() != cancelCount) return null;
+            if ((scored & (1L << cell)) == 0) continue;
+            if (bestMove < 0 || scores[cell] > scores[bestMove]) bestMove = cell;
+        }
+        return new Hint(bestMove, heatMap(scores, scored));
+    }
+
+    /** Stop a running analysis as soon as possible, and any queued one */
+    public void cancel() {
+        search.cancel();
+    }
+
+    /** Number of cancel() calls so far; take it when the analysis is requested */
+    public int getCancelCount() {
+        return search.getCancelCount();
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Scores of the scored cells mapped to [0, 1]: proven losses 0, proven wins
+     * 1, the rest spread in between
+     */
+    private float[] heatMap(int[] scores, long scored) {
+        int proven = IterativeSearch.WIN - geometry.cellCount - 1;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (long cells = scored; cells != 0; cells &= cells - 1) {
+            int score = scores[Long.numberOfTrailingZeros(cells)];
+            if (Math.abs(score) < proven) {
+                min = Math.min(min, score);
+                max = Math.max(max, score);
+            }
+        }
+
+        float[] heat = new float[geometry.cellCount];
+        for (int cell = 0; cell < heat.length; ++cell) {
+            int score = scores[cell];
+            if ((scored & (1L << cell)) == 0) {
+                heat[cell] = Float.NaN;
+            } else if (score >= proven) {
+                heat[cell] = 1f;
+            } else if (score <= -proven) {
+                heat[cell] = 0f;
+            } else {
+                heat[cell] = (max == min) ? 0.5f : 0.15f + 0.7f * (score - min) / (max - min);
+            }
+        }
+        return heat;
+    }
+
+    /** Immutable analysis result, safe to hand to the UI thread */
+    public static final class Hint {
+        private final int bestMove;
+        private final float[] heat;
+
+        Hint(int bestMove, float[] heat) {
+            this.bestMove = bestMove;
+            this.heat = heat;
+        }
+
+        /** Bit index of the recommended move, or -1 if no cell was scored in time */
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        /** How good the move on the cell is, from 0 (losing) to 1 (winning); NaN if occupied or unscored */
+        public float getHeat(int cell) {
+            return heat[cell];
+        }
+    }
+}
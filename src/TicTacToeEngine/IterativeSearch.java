@@ -0,0 +1,237 @@
+package TicTacToeEngine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Iterative-deepening alpha-beta search for boards too large to solve outright.
+ * Searches depth 1, 2, 3, ... until the deadline, and always answers with the
+ * best move of the deepest completed iteration. Leaves are scored with the
+ * board's incremental line evaluation. Results are kept in a transposition
+ * table keyed by Zobrist hash; its best moves are searched first.
+ */
+public class IterativeSearch implements MoveSearch {
+    /** Score of a win; larger than any static evaluation */
+    static final int WIN = 100_000_000;
+
+    private final Geometry geometry;
+    /** Cells ordered by how many win lines pass through them (centre first) */
+    private final int[] moveOrder;
+    /** Search results by Zobrist hash, kept between moves */
+    private final TranspositionTable table;
+
+    private BitBoard board;
+    private volatile boolean cancelled;
+    private final AtomicInteger cancels = new AtomicInteger();
+    private long deadline;
+    private long nodes;
+    private int completedDepth;
+    private int lastScore;
+    /** Deepest iteration to search, whatever the time left */
+    private int depthLimit = Integer.MAX_VALUE;
+
+    public IterativeSearch(Geometry geometry) {
+        this(geometry, new TranspositionTable(Solver.DEFAULT_TABLE_MB));
+    }
+
+    /** Search storing its results in the given table, which may be shared with other searches */
+    public IterativeSearch(Geometry geometry, TranspositionTable table) {
+        this.geometry = geometry;
+        this.moveOrder = Solver.orderByLines(geometry);
+        this.table = table;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        // Clear the flag first: a cancel() after the check sets it again
+        cancelled = false;
+        if (cancels.get() != cancelCount) cancelled = true;
+        table.newSearch();
+        return run(position, deadlineNanos, 0);
+    }
+
+    /**
+     * Iterative deepening without resetting cancel() or the table generation,
+     * for ParallelSearch. A helper (index above 0) starts on a different root
+     * move and at an odd/even depth offset, so the threads sharing the table
+     * spread over different parts of the tree (Lazy SMP).
+     */
+    int run(BitBoard position, long deadlineNanos, int helper) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        board = position.copy();
+        deadline = deadlineNanos;
+        completedDepth = 0;
+        lastScore = 0;
+
+        // Root moves, best first; the previous iteration's best move leads the next one
+        int[] rootMoves = new int[geometry.cellCount];
+        int count = 0;
+        long empty = board.getEmpty();
+        for (int cell : moveOrder) {
+            if ((empty & (1L << cell)) != 0) rootMoves[count++] = cell;
+        }
+        if (helper > 0) {
+            rotate(rootMoves, count, helper % count);
+        }
+
+        int bestCell = rootMoves[0];
+        int maxDepth = Math.min(geometry.cellCount - board.getStoneCount(), depthLimit);
+        for (int depth = 1 + helper % 2; depth <= maxDepth; ++depth) {
+            int alpha = -Integer.MAX_VALUE;
+            int iterationBest = -1;
+            for (int i = 0; i < count; ++i) {
+                int score = scoreMove(rootMoves[i], depth, alpha, Integer.MAX_VALUE);
+                if (cancelled) break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (iterationBest < 0) break;  // timed out before any move was scored
+
+            // Keep a partial iteration's move only if it beat the previous best, searched first
+            bestCell = rootMoves[iterationBest];
+            lastScore = alpha;
+            System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+            rootMoves[0] = bestCell;
+            if (cancelled) break;
+
+            completedDepth = depth;
+            if (Math.abs(alpha) >= WIN - geometry.cellCount) break;  // forced result found
+        }
+        return bestCell;
+    }
+
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+        cancelled = true;
+    }
+
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    /** Clear an earlier cancel() before run() */
+    void reset() {
+        cancelled = false;
+    }
+
+    /** Stop deepening after the given number of plies even if time remains */
+    public void setDepthLimit(int depthLimit) {
+        if (depthLimit < 1) {
+            throw new IllegalArgumentException("Invalid depth limit: " + depthLimit);
+        }
+        this.depthLimit = depthLimit;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** Depth of the last fully searched iteration */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /** Score of the chosen move, from the view of the player to move */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /** Positions visited by this search so far */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Negamax score for the player to move, searching depth more plies */
+    private int search(int depth, int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && deadline != 0 && System.nanoTime() - deadline > 0) {
+            cancelled = true;
+        }
+        int toMove = board.getToMove();
+
+        // Win now if possible; two threats against us cannot both be blocked
+        if (board.getWinningCells(toMove) != 0) {
+            return WIN - (board.getStoneCount() + 1);
+        }
+        long threats = board.getWinningCells(toMove ^ 1);
+        if (threats != 0 && (threats & (threats - 1)) != 0) {
+            return -(WIN - (board.getStoneCount() + 2));
+        }
+        if (depth == 0) {
+            return board.evaluate(toMove);
+        }
+
+        long hash = board.getHash();
+        int hashMove = -1;
+        long entry = table.probe(hash);
+        if (entry != TranspositionTable.MISS) {
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int value = TranspositionTable.valueOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT) return value;
+                if (bound == TranspositionTable.LOWER && value >= beta) return value;
+                if (bound == TranspositionTable.UPPER && value <= alpha) return value;
+            }
+            int move = TranspositionTable.moveOf(entry);
+            if (move != TranspositionTable.NO_MOVE) hashMove = move;
+        }
+
+        if (threats != 0) {
+            // A single threat must be blocked
+            return scoreMove(Long.numberOfTrailingZeros(threats), depth, alpha, beta);
+        }
+
+        int originalAlpha = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestCell = -1;
+        long empty = board.getEmpty();
+        // Best move of an earlier iteration first, then the usual order
+        for (int i = -1; i < moveOrder.length; ++i) {
+            int cell = (i < 0) ? hashMove : moveOrder[i];
+            if (cell < 0 || (i >= 0 && cell == hashMove) || (empty & (1L << cell)) == 0) continue;
+            int score = scoreMove(cell, depth, alpha, beta);
+            if (cancelled) return best;
+            if (score > best) {
+                best = score;
+                bestCell = cell;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+
+        int bound = (best <= originalAlpha) ? TranspositionTable.UPPER
+                : (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, depth, bound, best, bestCell);
+        return best;
+    }
+
+    /** Rotate the first count entries left by the given distance */
+    private static void rotate(int[] cells, int count, int distance) {
+        int[] head = new int[distance];
+        System.arraycopy(cells, 0, head, 0, distance);
+        System.arraycopy(cells, distance, cells, 0, count - distance);
+        System.arraycopy(head, 0, cells, count - distance, distance);
+    }
+
+    /** Play the cell, score it for the player who played it, and take it back */
+    private int scoreMove(int cell, int depth, int alpha, int beta) {
+        int state = board.makeMove(cell);
+        int score;
+        if (state == BitBoard.PLAYING) {
+            score = -search(depth - 1, -beta, -alpha);
+        } else if (state == BitBoard.DRAW) {
+            score = 0;
+        } else {
+            score = WIN - board.getStoneCount();
+        }
+        board.unmakeMove();
+        return score;
+    }
+}
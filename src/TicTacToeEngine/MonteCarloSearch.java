@@ -0,0 +1,414 @@
+package TicTacToeEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Monte Carlo Tree Search (UCT) for boards too large for alpha-beta.
+ * The tree lives in fixed-size primitive arrays; playouts run on a private
+ * BitBoard copy with makeMove()/unmakeMove(), so they allocate nothing.
+ * Playouts take an immediate win or block an immediate loss, otherwise
+ * they play a random empty cell.
+ *
+ * The search stops at the deadline or after a playout limit, whichever comes
+ * first. The subtree of the position actually reached is kept for the next
+ * turn. With several threads all of them grow the same tree; a node's visit
+ * is counted on the way down, before its result is known (virtual loss), so
+ * concurrent threads spread over different branches.
+ */
+public class MonteCarloSearch implements MoveSearch {
+    /** Default tree capacity in nodes (two trees are kept for reuse) */
+    public static final int DEFAULT_NODES = 1 << 19;
+    /** Playouts per move when there is neither a deadline nor a limit */
+    public static final int DEFAULT_PLAYOUTS = 100_000;
+    /** UCT exploration constant for results scored in [0, 1] */
+    private static final double EXPLORATION = 1.4;
+
+    // firstChild values of nodes without children
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int NO_ROOM = -3;
+
+    private final Geometry geometry;
+    /** Cells ordered by how many win lines pass through them (centre first) */
+    private final int[] moveOrder;
+    private final Worker[] workers;
+    private final ForkJoinPool pool;
+
+    /** Tree being searched, and the spare one its reused subtree is copied into */
+    private Tree tree;
+    private Tree spare;
+    /** Move stack of the position at the root of the tree (node 0) */
+    private int[] rootPath = new int[0];
+    private boolean hasRoot;
+
+    private volatile boolean cancelled;
+    private final AtomicInteger cancels = new AtomicInteger();
+    private final AtomicInteger playouts = new AtomicInteger();
+    private int playoutLimit;
+    /** Playout limit of the running search, 0 for none */
+    private int limit;
+    private long deadline;
+
+    /** Single-threaded search */
+    public MonteCarloSearch(Geometry geometry) {
+        this(geometry, 1, DEFAULT_NODES);
+    }
+
+    /** Search growing one tree of at most the given number of nodes on several threads */
+    public MonteCarloSearch(Geometry geometry, int threads, int maxNodes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+        if (maxNodes < geometry.cellCount + 1) {
+            throw new IllegalArgumentException("Invalid tree size: " + maxNodes);
+        }
+        this.geometry = geometry;
+        this.moveOrder = Solver.orderByLines(geometry);
+        this.tree = new Tree(maxNodes);
+        this.spare = new Tree(maxNodes);
+        SplittableRandom seeds = new SplittableRandom();
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Worker(seeds.split());
+        }
+        this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+    }
+
+    /** Stop after the given number of playouts per move (0 for time only) */
+    public void setPlayoutLimit(int playoutLimit) {
+        if (playoutLimit < 0) {
+            throw new IllegalArgumentException("Invalid playout limit: " + playoutLimit);
+        }
+        this.playoutLimit = playoutLimit;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        // Clear the flag first: a cancel() after the check sets it again
+        cancelled = false;
+        if (cancels.get() != cancelCount) cancelled = true;
+        deadline = deadlineNanos;
+        limit = (playoutLimit == 0 && deadline == 0) ? DEFAULT_PLAYOUTS : playoutLimit;
+        playouts.set(0);
+        reuseTree(position);
+        for (Worker worker : workers) {
+            worker.board = position.copy();
+        }
+        expand(tree, 0, position.getEmpty());
+
+        if (pool == null) {
+            workers[0].run();
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(workers.length);
+            for (Worker worker : workers) {
+                tasks.add(() -> {
+                    worker.run();
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> result : pool.invokeAll(tasks)) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search thread failed", e.getCause());
+            } catch (RejectedExecutionException e) {
+                return -1;  // shut down meanwhile: the answer is no longer wanted
+            }
+        }
+
+        // Most visited move: the most reliable estimate
+        int first = tree.firstChild.get(0);
+        int best = first;
+        for (int child = first + 1; child < first + tree.childCount[0]; ++child) {
+            if (tree.visits.get(child) > tree.visits.get(best)) best = child;
+        }
+        return tree.move[best];
+    }
+
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+        cancelled = true;
+    }
+
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    @Override
+    public boolean keepsTree() {
+        return true;
+    }
+
+    /** Forget the tree kept from earlier moves */
+    public void clear() {
+        hasRoot = false;
+    }
+
+    /** Playouts run by the last bestMove() call */
+    public int getPlayouts() {
+        return (limit == 0) ? playouts.get() : Math.min(playouts.get(), limit);
+    }
+
+    /** Nodes in the tree after the last bestMove() call */
+    public int getTreeSize() {
+        return Math.min(tree.count.get(), tree.move.length);
+    }
+
+    /** Visits of the root, including those kept from earlier moves */
+    public int getRootVisits() {
+        return tree.visits.get(0);
+    }
+
+    /** Release the search threads; the search cannot be used afterwards */
+    @Override
+    public void shutdown() {
+        cancel();
+        if (pool != null) pool.shutdown();
+    }
+
+    /** Make node 0 the given position, keeping the matching subtree of the last search */
+    private void reuseTree(BitBoard position) {
+        int node = hasRoot ? findNode(position) : -1;
+        if (node < 0) {
+            tree.reset();
+        } else if (node > 0) {
+            spare.copySubtree(tree, node);
+            Tree old = tree;
+            tree = spare;
+            spare = old;
+        }
+        int length = position.getMoveCount();
+        tree.pathLength = length;
+        if (rootPath.length < length) rootPath = new int[Math.max(length, geometry.cellCount)];
+        for (int i = 0; i < length; ++i) {
+            rootPath[i] = position.getMove(i);
+        }
+        hasRoot = true;
+    }
+
+    /** Node of the tree holding the given position, or -1 */
+    private int findNode(BitBoard position) {
+        int rootLength = tree.pathLength;
+        if (position.getMoveCount() < rootLength) return -1;
+        for (int i = 0; i < rootLength; ++i) {
+            if (position.getMove(i) != rootPath[i]) return -1;
+        }
+        int node = 0;
+        for (int i = rootLength; i < position.getMoveCount(); ++i) {
+            int cell = position.getMove(i);
+            int first = tree.firstChild.get(node);
+            if (cell == BitBoard.PASS || first < 0) return -1;
+            int next = -1;
+            for (int child = first; child < first + tree.childCount[node]; ++child) {
+                if (tree.move[child] == cell) next = child;
+            }
+            if (next < 0) return -1;
+            node = next;
+        }
+        return node;
+    }
+
+    /**
+     * Give the node one child per empty cell (centre first), unless another
+     * thread is already doing so or the tree is full. Return true if it has children.
+     */
+    private boolean expand(Tree t, int node, long empty) {
+        if (!t.firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+            return t.firstChild.get(node) >= 0;
+        }
+        int n = Long.bitCount(empty);
+        int first = t.count.getAndAdd(n);
+        if (first + n > t.move.length) {
+            t.firstChild.set(node, NO_ROOM);
+            return false;
+        }
+        int child = first;
+        for (int cell : moveOrder) {
+            if ((empty & (1L << cell)) == 0) continue;
+            t.move[child] = (byte) cell;
+            t.visits.set(child, 0);
+            t.score.set(child, 0);
+            t.firstChild.set(child, UNEXPANDED);
+            ++child;
+        }
+        t.childCount[node] = n;
+        t.firstChild.set(node, first);  // publishes the children to other threads
+        return true;
+    }
+
+    /** Child of the node with the highest UCT value */
+    private static int select(Tree t, int node) {
+        int first = t.firstChild.get(node);
+        double logParent = Math.log(Math.max(t.visits.get(node), 1));
+        int best = first;
+        double bestValue = -1;
+        for (int child = first; child < first + t.childCount[node]; ++child) {
+            int visits = t.visits.get(child);
+            if (visits == 0) return child;
+            double value = t.score.get(child) / (2.0 * visits) + EXPLORATION * Math.sqrt(logParent / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /** Random bit of a non-empty mask */
+    private static int randomBit(long bits, SplittableRandom random) {
+        for (int skip = random.nextInt(Long.bitCount(bits)); skip > 0; --skip) {
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Search tree in primitive arrays. Children of a node are contiguous.
+     * Scores are half-points (win 2, draw 1) for the player who made the node's move.
+     */
+    private static final class Tree {
+        final byte[] move;
+        final int[] childCount;
+        final AtomicIntegerArray firstChild;
+        final AtomicIntegerArray visits;
+        final AtomicIntegerArray score;
+        /** Old index of each node while copying a subtree */
+        final int[] origin;
+        final AtomicInteger count = new AtomicInteger();
+        /** Length of the move stack of the root position */
+        int pathLength;
+
+        Tree(int capacity) {
+            move = new byte[capacity];
+            childCount = new int[capacity];
+            firstChild = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            score = new AtomicIntegerArray(capacity);
+            origin = new int[capacity];
+        }
+
+        /** Only an unexpanded root */
+        void reset() {
+            count.set(1);
+            firstChild.set(0, UNEXPANDED);
+            visits.set(0, 0);
+            score.set(0, 0);
+            pathLength = 0;
+        }
+
+        /** Replace this tree by the subtree of another tree at the given node, breadth first */
+        void copySubtree(Tree from, int root) {
+            int size = 1;
+            origin[0] = root;
+            for (int node = 0; node < size; ++node) {
+                int old = origin[node];
+                move[node] = from.move[old];
+                visits.set(node, from.visits.get(old));
+                score.set(node, from.score.get(old));
+                int first = from.firstChild.get(old);
+                if (first < 0) {
+                    firstChild.set(node, UNEXPANDED);
+                    continue;
+                }
+                int n = from.childCount[old];
+                firstChild.set(node, size);
+                childCount[node] = n;
+                for (int k = 0; k < n; ++k) {
+                    origin[size++] = first + k;
+                }
+            }
+            count.set(size);
+        }
+    }
+
+    /** One search thread: its own board copy, path and random stream */
+    private final class Worker {
+        final SplittableRandom random;
+        final int[] path = new int[geometry.cellCount + 1];
+        BitBoard board;
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /** Run selection, expansion, playout and backpropagation until the budget is spent */
+        void run() {
+            Tree t = tree;
+            int rootMover = board.getToMove() ^ 1;
+            while (!cancelled) {
+                if (deadline != 0 && System.nanoTime() - deadline > 0) break;
+                if (playouts.getAndIncrement() >= limit && limit != 0) break;
+
+                // Selection: visits are counted on the way down (virtual loss)
+                int node = 0;
+                int depth = 0;
+                int state = BitBoard.PLAYING;
+                t.visits.incrementAndGet(0);
+                path[0] = 0;
+                while (state == BitBoard.PLAYING) {
+                    if (t.firstChild.get(node) < 0) {
+                        // Expansion once a leaf has been visited before
+                        if (t.visits.get(node) < 2 || !expand(t, node, board.getEmpty())) break;
+                    }
+                    node = select(t, node);
+                    t.visits.incrementAndGet(node);
+                    path[++depth] = node;
+                    state = board.makeMove(t.move[node]);
+                }
+
+                if (state == BitBoard.PLAYING) {
+                    state = playout();
+                }
+
+                // Backpropagation, from the view of each node's mover
+                int winner = (state == BitBoard.CROSS_WON) ? BitBoard.CROSS
+                        : (state == BitBoard.NOUGHT_WON) ? BitBoard.NOUGHT : BitBoard.NO_SEED;
+                for (int d = 1; d <= depth; ++d) {
+                    int mover = rootMover ^ (d & 1);
+                    int points = (winner == BitBoard.NO_SEED) ? 1 : (winner == mover) ? 2 : 0;
+                    if (points != 0) t.score.addAndGet(path[d], points);
+                    board.unmakeMove();
+                }
+            }
+        }
+
+        /** Play to the end of the game and back; return the final state */
+        int playout() {
+            int played = 0;
+            int state = BitBoard.PLAYING;
+            while (state == BitBoard.PLAYING) {
+                int toMove = board.getToMove();
+                long cells = board.getWinningCells(toMove);
+                if (cells == 0) cells = board.getWinningCells(toMove ^ 1);
+                if (cells == 0) cells = board.getEmpty();
+                state = board.makeMove(randomBit(cells, random));
+                ++played;
+            }
+            while (played-- > 0) {
+                board.unmakeMove();
+            }
+            return state;
+        }
+    }
+}
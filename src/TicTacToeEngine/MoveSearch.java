@@ -0,0 +1,82 @@
+package TicTacToeEngine;
+
+/**
+ * A computer player: picks a move for the player to move in a position.
+ * Implementations are not thread-safe unless stated; cancel() may be called
+ * from any thread.
+ */
+public interface MoveSearch {
+    /** Boards up to this many cells are solved exactly; larger ones use iterative deepening */
+    int SOLVE_LIMIT = 16;
+    /** Boards above this many cells (beyond 6x6) use Monte Carlo Tree Search */
+    int ALPHA_BETA_LIMIT = 36;
+
+    /**
+     * Best search for the given board: perfect play when small enough (from a
+     * tablebase file if one was generated), iterative deepening up to 6x6 and
+     * MCTS beyond, on all processors; on big boards threat search goes first.
+     */
+    static MoveSearch forGeometry(Geometry geometry) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (geometry.cellCount <= SOLVE_LIMIT) return Tablebase.openIfPresent(new Solver(geometry));
+        MoveSearch search;
+        if (geometry.cellCount > ALPHA_BETA_LIMIT) {
+            search = new MonteCarloSearch(geometry, processors, MonteCarloSearch.DEFAULT_NODES);
+        } else {
+            search = (processors > 1) ? new ParallelSearch(geometry) : new IterativeSearch(geometry);
+        }
+        return ThreatSearch.appliesTo(geometry) ? new ThreatSearch(search) : search;
+    }
+
+    /**
+     * Return the bit index of the chosen move, or -1 if the game is over (or
+     * the search was cancelled or shut down before it found one).
+     * The search must return before System.nanoTime() reaches the deadline
+     * (0 for no limit). The given board is not modified.
+     */
+    default int bestMove(BitBoard position, long deadlineNanos) {
+        return bestMove(position, deadlineNanos, getCancelCount());
+    }
+
+    /**
+     * As bestMove(position, deadlineNanos), but stopped by every cancel() made
+     * since getCancelCount() returned cancelCount, including one made before
+     * this call started (e.g. while it was queued), so no cancel() is lost.
+     */
+    int bestMove(BitBoard position, long deadlineNanos, int cancelCount);
+
+    /**
+     * Stop a running search as soon as possible, and any search started with
+     * an earlier cancel count. Searches started afterwards are not affected.
+     */
+    void cancel();
+
+    /** Number of cancel() calls so far; take it when the search is requested */
+    default int getCancelCount() {
+        return 0;  // for players that answer at once and ignore cancel()
+    }
+
+    /**
+     * Release the threads the search holds (if any); call it before dropping
+     * the search. A search shut down cannot be used afterwards.
+     */
+    default void shutdown() {
+    }
+
+    /** True if the last bestMove() answer is proven perfect play */
+    default boolean isExact() {
+        return false;
+    }
+
+    /**
+     * True if the search keeps its tree between calls and re-roots it at a
+     * later position of the same game, so searching a position also prepares
+     * the answers to all of its replies.
+     */
+    default boolean keepsTree() {
+        return false;
+    }
+
+    /** Board shape this search was built for */
+    Geometry getGeometry();
+}
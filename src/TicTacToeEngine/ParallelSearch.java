@@ -0,0 +1,156 @@
+package TicTacToeEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: several IterativeSearch threads search the same position on a
+ * ForkJoinPool, sharing one lock-free TranspositionTable. The helpers start on
+ * other root moves and depths, so the table fills with results the main
+ * search would otherwise compute itself. The first thread to finish stops the
+ * others; the answer comes from the deepest completed iteration.
+ */
+public class ParallelSearch implements MoveSearch {
+    /** Default shared table size */
+    public static final int DEFAULT_TABLE_MB = 64;
+
+    private final Geometry geometry;
+    private final TranspositionTable table;
+    private final IterativeSearch[] workers;
+    private final ForkJoinPool pool;
+    private final AtomicInteger cancels = new AtomicInteger();
+    private int completedDepth;
+    private int lastScore;
+
+    /** Parallel search on one thread per available processor */
+    public ParallelSearch(Geometry geometry) {
+        this(geometry, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelSearch(Geometry geometry, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+        this.geometry = geometry;
+        this.table = new TranspositionTable(DEFAULT_TABLE_MB);
+        this.workers = new IterativeSearch[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new IterativeSearch(geometry, table);
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        table.newSearch();
+        // Reset the workers first: a cancel() after the check stops them again
+        for (IterativeSearch worker : workers) {
+            worker.reset();
+        }
+        if (cancels.get() != cancelCount) stopWorkers();
+
+        List<Callable<Integer>> tasks = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; ++i) {
+            final int helper = i;
+            tasks.add(() -> {
+                int move = workers[helper].run(position, deadlineNanos, helper);
+                stopWorkers();  // first one done stops the rest
+                return move;
+            });
+        }
+
+        int bestCell = -1;
+        completedDepth = -1;
+        try {
+            List<Future<Integer>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < workers.length; ++i) {
+                int move = results.get(i).get();
+                // Deepest completed iteration wins; the main search breaks ties
+                if (workers[i].getCompletedDepth() > completedDepth) {
+                    completedDepth = workers[i].getCompletedDepth();
+                    lastScore = workers[i].getLastScore();
+                    bestCell = move;
+                }
+            }
+        } catch (InterruptedException e) {
+            stopWorkers();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        } catch (RejectedExecutionException e) {
+            return -1;  // shut down meanwhile: the answer is no longer wanted
+        }
+        return bestCell;
+    }
+
+    /** Stop all search threads as soon as possible (from any thread) */
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+        stopWorkers();
+    }
+
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    private void stopWorkers() {
+        for (IterativeSearch worker : workers) {
+            worker.cancel();
+        }
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /** Stop every thread at the given depth, for fixed-depth comparisons */
+    public void setDepthLimit(int depthLimit) {
+        for (IterativeSearch worker : workers) {
+            worker.setDepthLimit(depthLimit);
+        }
+    }
+
+    /** Depth of the iteration the last answer came from */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /** Score of the chosen move, from the view of the player to move */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /** Positions visited by all threads so far */
+    public long getNodes() {
+        long nodes = 0;
+        for (IterativeSearch worker : workers) {
+            nodes += worker.getNodes();
+        }
+        return nodes;
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** Release the search threads; the search cannot be used afterwards */
+    @Override
+    public void shutdown() {
+        cancel();
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,162 @@
+package TicTacToeEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thinks on the opponent's time: while the opponent is to move, searches the
+ * computer's answer to each of the opponent's likely replies (the most
+ * promising by static evaluation first), in passes with growing time slices.
+ * The search's table stays warm, and once the opponent has moved, answer()
+ * returns the pre-searched reply if it was searched as long as the move
+ * itself would be (or proven). A search that keeps its tree (MCTS) instead
+ * grows the tree of the pondered position: it holds every reply, and the
+ * move search re-roots it at the one played.
+ *
+ * start() and cancel() are called from the UI thread; the Runnable returned by
+ * start() runs on the thread that owns the search.
+ */
+public final class Ponderer {
+    /** Time per reply in the first pass; each later pass doubles it */
+    private static final long FIRST_SLICE_NANOS = 100_000_000L;
+    private static final long MAX_SLICE_NANOS = 1_600_000_000L;
+
+    private final MoveSearch search;
+    private volatile Session session;
+
+    public Ponderer(MoveSearch search) {
+        this.search = search;
+    }
+
+    /**
+     * Begin pondering the given position (the opponent to move), replacing any
+     * earlier pondering. Return the work to run on the search thread.
+     */
+    public Runnable start(BitBoard position) {
+        cancel();
+        Session current = new Session(position.copy(), search.getCancelCount());
+        session = current;
+        return () -> ponder(current);
+    }
+
+    /**
+     * Stop pondering as soon as possible, even if its work has not started
+     * yet; answers found so far are kept.
+     */
+    public void cancel() {
+        Session current = session;
+        if (current != null && !current.cancelled) {
+            current.cancelled = true;
+            search.cancel();  // also stops a slice just starting, by the session's cancel count
+        }
+    }
+
+    /**
+     * Pre-searched answer if the position is the pondered one plus one move of
+     * the opponent, and the answer is proven or was searched for at least
+     * minNanos (what the move search would spend), else -1.
+     */
+    public int answer(BitBoard position, long minNanos) {
+        Session current = session;
+        if (current == null) return -1;
+        int[] path = current.path;
+        int count = path.length;
+        if (position.getGeometry() != search.getGeometry() || position.getMoveCount() != count + 1) return -1;
+        for (int i = 0; i < count; ++i) {
+            if (position.getMove(i) != path[i]) return -1;
+        }
+        int reply = position.getMove(count);
+        if (reply == BitBoard.PASS || current.searched.get(reply) < minNanos) return -1;
+        return current.answers.get(reply);
+    }
+
+    public MoveSearch getSearch() {
+        return search;
+    }
+
+    private void ponder(Session current) {
+        BitBoard board = current.root;
+        if (current.cancelled || board.getState() != BitBoard.PLAYING) return;
+        if (search.keepsTree()) {
+            // Every reply is in the tree; no answer is kept per reply
+            while (!current.cancelled) {
+                search.bestMove(board, System.nanoTime() + MAX_SLICE_NANOS, current.cancelCount);
+            }
+            return;
+        }
+        int[] replies = likelyReplies(board);
+        boolean[] exact = new boolean[board.getGeometry().cellCount];
+
+        for (long slice = FIRST_SLICE_NANOS; !current.cancelled; slice = Math.min(slice * 2, MAX_SLICE_NANOS)) {
+            boolean done = true;
+            for (int reply : replies) {
+                if (exact[reply]) continue;
+                if (board.makeMove(reply) == BitBoard.PLAYING) {
+                    int move = search.bestMove(board, System.nanoTime() + slice, current.cancelCount);
+                    if (!current.cancelled) {
+                        exact[reply] = search.isExact();
+                        // Time first: answer() reads the answer after it
+                        current.searched.set(reply, exact[reply] ? Long.MAX_VALUE : slice);
+                        current.answers.set(reply, move);
+                    }
+                } else {
+                    exact[reply] = true;  // the game ends, nothing to answer
+                }
+                board.unmakeMove();
+                if (current.cancelled) break;
+                done &= exact[reply];
+            }
+            if (done) break;
+        }
+    }
+
+    /** Empty cells, the opponent's immediate wins and blocks first, then by static evaluation */
+    private static int[] likelyReplies(BitBoard board) {
+        int opponent = board.getToMove();
+        long urgent = board.getWinningCells(opponent) | board.getWinningCells(opponent ^ 1);
+        long empty = board.getEmpty();
+        int[] cells = new int[Long.bitCount(empty)];
+        long[] keys = new long[cells.length];
+        for (int i = 0; empty != 0; ++i, empty &= empty - 1) {
+            int cell = Long.numberOfTrailingZeros(empty);
+            board.makeMove(cell);
+            long score = board.evaluate(opponent) + (((urgent & (1L << cell)) != 0) ? Integer.MAX_VALUE : 0L);
+            board.unmakeMove();
+            keys[i] = -score << 8 | cell;  // ascending keys give descending scores
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = (int) (keys[i] & 0xFF);
+        }
+        return cells;
+    }
+
+    /** One pondered position and its answers, by the opponent's reply */
+    private static final class Session {
+        /** Pondered position, searched from (search thread only) */
+        final BitBoard root;
+        /** Move stack of the pondered position */
+        final int[] path;
+        final AtomicIntegerArray answers;
+        /** Time the answer was searched for, by the opponent's reply (Long.MAX_VALUE if proven) */
+        final AtomicLongArray searched;
+        /** The search's cancel count when pondering began */
+        final int cancelCount;
+        volatile boolean cancelled;
+
+        Session(BitBoard root, int cancelCount) {
+            this.root = root;
+            this.cancelCount = cancelCount;
+            this.path = new int[root.getMoveCount()];
+            for (int i = 0; i < path.length; ++i) {
+                path[i] = root.getMove(i);
+            }
+            this.answers = new AtomicIntegerArray(root.getGeometry().cellCount);
+            this.searched = new AtomicLongArray(root.getGeometry().cellCount);
+            for (int i = 0; i < answers.length(); ++i) {
+                answers.set(i, -1);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package TicTacToeEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays a uniformly random empty cell. Allocation-free, for simulations and
+ * as the weakest opponent. Not thread-safe: use one per thread.
+ */
+public class RandomPlayer implements MoveSearch {
+    private final Geometry geometry;
+    private final SplittableRandom random;
+
+    public RandomPlayer(Geometry geometry, SplittableRandom random) {
+        this.geometry = geometry;
+        this.random = random;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        return randomCell(position.getEmpty(), random);
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /** Random bit index of a non-empty mask */
+    static int randomCell(long cells, SplittableRandom random) {
+        for (int skip = random.nextInt(Long.bitCount(cells)); skip > 0; --skip) {
+            cells &= cells - 1;
+        }
+        return Long.numberOfTrailingZeros(cells);
+    }
+}
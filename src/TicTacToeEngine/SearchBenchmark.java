@@ -0,0 +1,47 @@
+package TicTacToeEngine;
+
+/**
+ * Command-line comparison of ParallelSearch against a single IterativeSearch
+ * at a fixed depth, on the empty 5x5 (4 in a row) and 6x6 (5 in a row) boards.
+ * Usage: java TicTacToeEngine.SearchBenchmark [threads] [depth5x5] [depth6x6]
+ */
+public class SearchBenchmark {
+    public static void main(String[] args) {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth5 = (args.length > 1) ? Integer.parseInt(args[1]) : 9;
+        int depth6 = (args.length > 2) ? Integer.parseInt(args[2]) : 7;
+
+        // Warm up the JIT so the first timing is not penalized
+        benchmark(Geometry.of(5, 5, 4), Math.max(depth5 - 2, 1), threads, false);
+
+        System.out.println("Threads: " + threads);
+        benchmark(Geometry.of(5, 5, 4), depth5, threads, true);
+        benchmark(Geometry.of(6, 6, 5), depth6, threads, true);
+    }
+
+    /** Time one fixed-depth search of the empty board, single-threaded and parallel */
+    private static void benchmark(Geometry geometry, int depth, int threads, boolean print) {
+        BitBoard position = new BitBoard(geometry);
+
+        IterativeSearch single = new IterativeSearch(geometry, new TranspositionTable(ParallelSearch.DEFAULT_TABLE_MB));
+        single.setDepthLimit(depth);
+        long start = System.nanoTime();
+        int singleMove = single.bestMove(position, 0);
+        long singleTime = System.nanoTime() - start;
+
+        ParallelSearch parallel = new ParallelSearch(geometry, threads);
+        parallel.setDepthLimit(depth);
+        start = System.nanoTime();
+        int parallelMove = parallel.bestMove(position, 0);
+        long parallelTime = System.nanoTime() - start;
+        parallel.shutdown();
+
+        if (!print) return;
+        System.out.printf("%dx%d depth %d: 1 thread %.1f ms (%d nodes, move %d), "
+                        + "%d threads %.1f ms (%d nodes, move %d), speedup %.2fx%n",
+                geometry.rows, geometry.cols, depth,
+                singleTime / 1e6, single.getNodes(), singleMove,
+                threads, parallelTime / 1e6, parallel.getNodes(), parallelMove,
+                (double) singleTime / parallelTime);
+    }
+}
@@ -0,0 +1,232 @@
+package TicTacToeEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Perfect-play solver: full-depth negamax with alpha-beta pruning, memoized
+ * in a transposition table on the canonical (symmetry-reduced) position key.
+ * Scores are from the view of the player to move: a win is worth more the
+ * sooner it comes, a draw is 0. Passes are not considered during search.
+ */
+public class Solver implements MoveSearch {
+    /** Default transposition table size, plenty for a 4x4 board */
+    public static final int DEFAULT_TABLE_MB = 16;
+
+    private final Geometry geometry;
+    /** Cells ordered by how many win lines pass through them (centre first) */
+    private final int[] moveOrder;
+    /** Solved positions by canonical key; best moves are kept in the canonical frame */
+    private final TranspositionTable table;
+
+    private BitBoard board;
+    private volatile boolean cancelled;
+    private final AtomicInteger cancels = new AtomicInteger();
+    /** System.nanoTime() after which the search stops, or 0 for no limit */
+    private long deadline;
+    private long nodes;
+    private int lastScore;
+
+    public Solver(Geometry geometry) {
+        this(geometry, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    /** Solver memoizing into the given table, which may be shared with other solvers */
+    public Solver(Geometry geometry, TranspositionTable table) {
+        this.geometry = geometry;
+        this.moveOrder = orderByLines(geometry);
+        this.table = table;
+    }
+
+    /**
+     * Return the bit index of a best move for the player to move, or -1 if the
+     * game is over. The search has no time limit (a deadline left by an earlier
+     * timed call does not apply). The given board is not modified.
+     */
+    public int bestMove(BitBoard position) {
+        return bestMove(position, 0, cancels.get());
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        setDeadline(deadlineNanos);
+        board = position.copy();
+        // Clear the flag first: a cancel() after the check sets it again
+        cancelled = false;
+        if (cancels.get() != cancelCount) cancelled = true;
+        table.newSearch();
+
+        int bestCell = -1;
+        int alpha = -Integer.MAX_VALUE;
+        long empty = board.getEmpty();
+        for (int cell : moveOrder) {
+            if ((empty & (1L << cell)) == 0) continue;
+            int score = scoreMove(cell, alpha, Integer.MAX_VALUE);
+            if (cancelled) {
+                // Unfinished score; fall back to any legal move if nothing was scored
+                if (bestCell < 0) bestCell = cell;
+                break;
+            }
+            if (score > alpha || bestCell < 0) {
+                alpha = score;
+                bestCell = cell;
+            }
+        }
+        lastScore = alpha;
+        return bestCell;
+    }
+
+    /** Score of the root position found by the last bestMove() call */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Stop the running search once System.nanoTime() passes the given value
+     * (0 for no limit); bestMove() then returns the best root move scored so
+     * far. Each bestMove() call starts with its own deadline.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.deadline = deadlineNanos;
+    }
+
+    /** True if the last bestMove() was cut short and may not be perfect */
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isExact() {
+        return !cancelled;
+    }
+
+    /** Stop a running search as soon as possible (from any thread) */
+    @Override
+    public void cancel() {
+        cancels.incrementAndGet();
+        cancelled = true;
+    }
+
+    @Override
+    public int getCancelCount() {
+        return cancels.get();
+    }
+
+    /** Forget all memoized positions */
+    public void clear() {
+        table.clear();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /** Positions visited by this solver so far */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Score of a full game for the player to move, between alpha and beta */
+    private int solve(int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && deadline != 0 && System.nanoTime() - deadline > 0) {
+            cancelled = true;
+        }
+        int toMove = board.getToMove();
+
+        // Win now if possible
+        long wins = board.getWinningCells(toMove);
+        if (wins != 0) {
+            return winScore(board.getStoneCount() + 1);
+        }
+
+        // Must block a single threat; two threats cannot both be blocked
+        long threats = board.getWinningCells(toMove ^ 1);
+        if (threats != 0 && (threats & (threats - 1)) != 0) {
+            return -winScore(board.getStoneCount() + 2);
+        }
+
+        long canonical = board.canonicalize();
+        long key = Symmetry.keyOf(canonical);
+        int t = Symmetry.transformOf(canonical);
+        Symmetry symmetry = geometry.symmetry;
+        int hashMove = -1;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            int value = TranspositionTable.valueOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.EXACT) return value;
+            if (bound == TranspositionTable.LOWER && value >= beta) return value;
+            if (bound == TranspositionTable.UPPER && value <= alpha) return value;
+            int move = TranspositionTable.moveOf(entry);
+            if (move != TranspositionTable.NO_MOVE) {
+                hashMove = symmetry.transformCell(Symmetry.inverse(t), move);
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestCell = -1;
+        if (threats != 0) {
+            bestCell = Long.numberOfTrailingZeros(threats);
+            best = scoreMove(bestCell, alpha, beta);
+            if (cancelled) return best;
+        } else {
+            // Best move of an earlier visit first, then the usual order
+            long empty = board.getEmpty();
+            for (int i = -1; i < moveOrder.length; ++i) {
+                int cell = (i < 0) ? hashMove : moveOrder[i];
+                if (cell < 0 || (i >= 0 && cell == hashMove) || (empty & (1L << cell)) == 0) continue;
+                int score = scoreMove(cell, alpha, beta);
+                if (score > best) {
+                    best = score;
+                    bestCell = cell;
+                    if (score > alpha) alpha = score;
+                    if (alpha >= beta) break;
+                }
+                if (cancelled) return best;
+            }
+        }
+
+        int bound = (best <= originalAlpha) ? TranspositionTable.UPPER
+                : (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, geometry.cellCount - board.getStoneCount(), bound, best,
+                symmetry.transformCell(t, bestCell));
+        return best;
+    }
+
+    /** Play the cell, score it for the player who played it, and take it back */
+    private int scoreMove(int cell, int alpha, int beta) {
+        int state = board.makeMove(cell);
+        int score;
+        if (state == BitBoard.PLAYING) {
+            score = -solve(-beta, -alpha);
+        } else if (state == BitBoard.DRAW) {
+            score = 0;
+        } else {
+            score = winScore(board.getStoneCount());
+        }
+        board.unmakeMove();
+        return score;
+    }
+
+    /** Score of a win completed with the given number of stones on the board */
+    private int winScore(int stones) {
+        return geometry.cellCount + 2 - stones;
+    }
+
+    /** All cells, sorted by the number of win lines through them (most first) */
+    static int[] orderByLines(Geometry geometry) {
+        Integer[] cells = new Integer[geometry.cellCount];
+        for (int i = 0; i < cells.length; ++i) cells[i] = i;
+        Arrays.sort(cells, (a, b) -> geometry.cellLines[b].length - geometry.cellLines[a].length);
+        int[] order = new int[cells.length];
+        for (int i = 0; i < order.length; ++i) order[i] = cells[i];
+        return order;
+    }
+}
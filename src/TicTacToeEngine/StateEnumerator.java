@@ -0,0 +1,412 @@
+package TicTacToeEngine;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exhaustive enumerator of the positions reachable by alternating play, one
+ * depth (number of stones) at a time, in parallel and reduced by symmetry.
+ *
+ * Each depth is a bitset over all placements of its stones: a position's bit
+ * is its combinatorial rank (rank of the crosses among all cells, times the
+ * rank of the noughts among the cells left). Only canonical positions are
+ * marked. Expanding a depth marks its non-terminal positions' children in the
+ * next depth's bitset with an atomic OR, so any number of threads can work at
+ * once. Small bitsets live on the heap; large ones in memory-mapped temporary
+ * files, updated by compare-and-set through a VarHandle. Only two depths are
+ * kept at a time.
+ *
+ * Usage: java TicTacToeEngine.StateEnumerator [--size RxC[:K]]... [--max-depth D]
+ *        [--threads N] [--heap-mb M] [--dir DIR]
+ * Default sizes: 3x3, 4x4 and 5x5 with the Board win conditions (3, 4, 4).
+ */
+public class StateEnumerator {
+    /** Words of a bitset handed to a worker at a time */
+    private static final int BLOCK_WORDS = 1 << 12;
+
+    private final Geometry geometry;
+    private final int threads;
+    private final long heapLimit;
+    private final Path dir;
+    private final long[][] binomial;
+
+    // Per-depth totals of the depth being expanded
+    private final LongAdder canonical = new LongAdder();
+    private final LongAdder positions = new LongAdder();
+    private final LongAdder crossWins = new LongAdder();
+    private final LongAdder noughtWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private long peakOffHeap;
+
+    public StateEnumerator(Geometry geometry, int threads, long heapLimitBytes, Path dir) {
+        this.geometry = geometry;
+        this.threads = threads;
+        this.heapLimit = heapLimitBytes;
+        this.dir = dir;
+        int n = geometry.cellCount;
+        binomial = new long[n + 1][n + 2];
+        for (int i = 0; i <= n; ++i) {
+            binomial[i][0] = 1;
+            for (int k = 1; k <= i; ++k) {
+                binomial[i][k] = binomial[i - 1][k - 1] + binomial[i - 1][k];
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Geometry> sizes = new ArrayList<>();
+        int maxDepth = Integer.MAX_VALUE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long heapMb = 256;
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--size":
+                    String[] parts = value.toLowerCase(Locale.ROOT).split(":");
+                    String[] size = parts[0].split("x");
+                    int rows = Integer.parseInt(size[0]);
+                    int win = (parts.length > 1) ? Integer.parseInt(parts[1]) : Geometry.winConditionFor(rows);
+                    sizes.add(Geometry.of(rows, Integer.parseInt(size[size.length - 1]), win));
+                    break;
+                case "--max-depth": maxDepth = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--heap-mb": heapMb = Long.parseLong(value); break;
+                case "--dir": dir = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(Geometry.of(3, 3, 3));
+            sizes.add(Geometry.of(4, 4, 4));
+            sizes.add(Geometry.of(5, 5, 4));
+        }
+        for (Geometry geometry : sizes) {
+            new StateEnumerator(geometry, threads, heapMb << 20, dir).run(maxDepth);
+        }
+    }
+
+    /** Enumerate depth 0 up to maxDepth (or the end of the game), printing one line per depth */
+    public void run(int maxDepth) throws IOException, InterruptedException {
+        int n = geometry.cellCount;
+        System.out.printf("%dx%d (%d in a row), %d threads%n", geometry.rows, geometry.cols,
+                geometry.winCondition, threads);
+        System.out.printf("%5s %16s %16s %14s %14s %12s %9s%n",
+                "depth", "canonical", "positions", "X wins", "O wins", "draws", "seconds");
+
+        long start = System.nanoTime();
+        long totalCanonical = 0, totalPositions = 0, totalTerminal = 0;
+        long peakHeap = 0;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Bits level = null, next = null;
+        try {
+            level = createBits(0);
+            level.set(0);
+            for (int depth = 0; level != null && depth <= Math.min(n, maxDepth); ++depth) {
+                long levelStart = System.nanoTime();
+                next = (depth < Math.min(n, maxDepth)) ? createBits(depth + 1) : null;
+                expand(pool, level, depth, next);
+                level.close();
+                level = next;
+                next = null;
+
+                totalCanonical += canonical.sum();
+                totalPositions += positions.sum();
+                totalTerminal += crossWins.sum() + noughtWins.sum() + draws.sum();
+                Runtime runtime = Runtime.getRuntime();
+                peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+                System.out.printf("%5d %,16d %,16d %,14d %,14d %,12d %9.2f%n", depth, canonical.sum(),
+                        positions.sum(), crossWins.sum(), noughtWins.sum(), draws.sum(),
+                        (System.nanoTime() - levelStart) / 1e9);
+            }
+        } finally {
+            pool.shutdown();
+            // Also on failure, so no temporary file is left behind
+            if (level != null) level.close();
+            if (next != null) next.close();
+        }
+        System.out.printf("Total: %,d canonical, %,d positions, %,d terminal; %.2f s, "
+                        + "peak heap %,d MB, peak off-heap %,d MB%n%n",
+                totalCanonical, totalPositions, totalTerminal, (System.nanoTime() - start) / 1e9,
+                peakHeap >> 20, peakOffHeap >> 20);
+    }
+
+    /** Count the positions of one depth and mark the children of the unfinished ones */
+    private void expand(ForkJoinPool pool, Bits level, int depth, Bits next) throws InterruptedException {
+        canonical.reset();
+        positions.reset();
+        crossWins.reset();
+        noughtWins.reset();
+        draws.reset();
+        AtomicLong nextBlock = new AtomicLong();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            results.add(pool.submit(() -> {
+                long block;
+                while ((block = nextBlock.getAndAdd(BLOCK_WORDS)) < level.words()) {
+                    expandBlock(level, block, Math.min(block + BLOCK_WORDS, level.words()), depth, next);
+                }
+            }));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Enumeration thread failed", e.getCause());
+        }
+    }
+
+    private void expandBlock(Bits level, long fromWord, long toWord, int depth, Bits next) {
+        Symmetry symmetry = geometry.symmetry;
+        int crossCount = (depth + 1) / 2;
+        int noughtCount = depth / 2;
+        long[] stones = new long[2];
+        long localCanonical = 0, localPositions = 0, localCrossWins = 0, localNoughtWins = 0, localDraws = 0;
+
+        for (long word = fromWord; word < toWord; ++word) {
+            for (long bits = level.word(word); bits != 0; bits &= bits - 1) {
+                unrank(word * 64 + Long.numberOfTrailingZeros(bits), crossCount, noughtCount, stones);
+                long cross = stones[0], nought = stones[1];
+
+                // Symmetric equivalents: transforms / transforms keeping the position
+                int fixed = 0;
+                for (int i = 0; i < symmetry.getTransformCount(); ++i) {
+                    int t = symmetry.getTransform(i);
+                    if (symmetry.transform(t, cross) == cross && symmetry.transform(t, nought) == nought) ++fixed;
+                }
+                long orbit = symmetry.getTransformCount() / fixed;
+                ++localCanonical;
+                localPositions += orbit;
+
+                if (hasLine(cross)) {
+                    localCrossWins += orbit;
+                } else if (hasLine(nought)) {
+                    localNoughtWins += orbit;
+                } else if (depth == geometry.cellCount) {
+                    localDraws += orbit;
+                } else if (next != null) {
+                    boolean crossToMove = (depth & 1) == 0;
+                    for (long empty = ~(cross | nought) & geometry.fullMask; empty != 0; empty &= empty - 1) {
+                        long stone = empty & -empty;
+                        long childCross = crossToMove ? cross | stone : cross;
+                        long childNought = crossToMove ? nought : nought | stone;
+                        int t = symmetry.canonicalTransform(childCross, childNought);
+                        next.set(rank(symmetry.transform(t, childCross), symmetry.transform(t, childNought)));
+                    }
+                }
+            }
+        }
+        canonical.add(localCanonical);
+        positions.add(localPositions);
+        crossWins.add(localCrossWins);
+        noughtWins.add(localNoughtWins);
+        draws.add(localDraws);
+    }
+
+    private boolean hasLine(long stones) {
+        for (long mask : geometry.winMasks) {
+            if ((stones & mask) == mask) return true;
+        }
+        return false;
+    }
+
+    /** Placements of the stones of a depth: C(n, crosses) * C(n - crosses, noughts) */
+    private long size(int depth) {
+        int n = geometry.cellCount;
+        int crossCount = (depth + 1) / 2;
+        return binomial[n][crossCount] * binomial[n - crossCount][depth / 2];
+    }
+
+    /** Rank of a position among the placements of its depth */
+    long rank(long cross, long nought) {
+        int n = geometry.cellCount;
+        int crossCount = Long.bitCount(cross);
+        // Noughts numbered among the cells without a cross
+        long packed = 0L;
+        for (int cell = 0, free = 0; cell < n; ++cell) {
+            if ((cross & (1L << cell)) != 0) continue;
+            if ((nought & (1L << cell)) != 0) packed |= 1L << free;
+            ++free;
+        }
+        return rankSet(cross) * binomial[n - crossCount][Long.bitCount(nought)] + rankSet(packed);
+    }
+
+    /** Inverse of rank(): stones[0] = crosses, stones[1] = noughts */
+    void unrank(long rank, int crossCount, int noughtCount, long[] stones) {
+        int n = geometry.cellCount;
+        long noughtRanks = binomial[n - crossCount][noughtCount];
+        long cross = unrankSet(rank / noughtRanks, crossCount, n);
+        long packed = unrankSet(rank % noughtRanks, noughtCount, n - crossCount);
+        long nought = 0L;
+        for (int cell = 0, free = 0; cell < n; ++cell) {
+            if ((cross & (1L << cell)) != 0) continue;
+            if ((packed & (1L << free)) != 0) nought |= 1L << cell;
+            ++free;
+        }
+        stones[0] = cross;
+        stones[1] = nought;
+    }
+
+    /** Colexicographic rank of a set: sum of C(cell, i) over its i-th smallest cells (from 1) */
+    private long rankSet(long set) {
+        long rank = 0;
+        for (int i = 1; set != 0; ++i, set &= set - 1) {
+            rank += binomial[Long.numberOfTrailingZeros(set)][i];
+        }
+        return rank;
+    }
+
+    private long unrankSet(long rank, int k, int n) {
+        long set = 0L;
+        int cell = n;
+        for (int i = k; i >= 1; --i) {
+            do {
+                --cell;
+            } while (binomial[cell][i] > rank);
+            rank -= binomial[cell][i];
+            set |= 1L << cell;
+        }
+        return set;
+    }
+
+    /** Bitset of one depth: on the heap if small enough, else in a mapped temporary file */
+    private Bits createBits(int depth) throws IOException {
+        long words = (size(depth) + 63) / 64;
+        if (words * 8 <= heapLimit && words <= Integer.MAX_VALUE) {
+            return new HeapBits(words);
+        }
+        MappedBits bits = new MappedBits(words, dir);
+        peakOffHeap = Math.max(peakOffHeap, words * 8);
+        return bits;
+    }
+
+    /** Concurrent bitset of up to 64 * words bits */
+    private interface Bits {
+        long words();
+
+        long word(long index);
+
+        /** Set the bit with an atomic OR */
+        void set(long bit);
+
+        /** Release the storage; never fails */
+        void close();
+    }
+
+    private static final class HeapBits implements Bits {
+        private final AtomicLongArray words;
+
+        HeapBits(long words) {
+            this.words = new AtomicLongArray((int) words);
+        }
+
+        @Override
+        public long words() {
+            return words.length();
+        }
+
+        @Override
+        public long word(long index) {
+            return words.get((int) index);
+        }
+
+        @Override
+        public void set(long bit) {
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old = words.get(index);
+            while ((old & mask) == 0 && !words.compareAndSet(index, old, old | mask)) {
+                old = words.get(index);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Bitset in a temporary file, mapped in 1 GB chunks (a single mapping is limited to 2 GB) */
+    private static final class MappedBits implements Bits {
+        private static final int CHUNK_SHIFT = 30;
+        private static final VarHandle LONGS =
+                MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+        private final long words;
+        private final Path file;
+        private final MappedByteBuffer[] chunks;
+
+        MappedBits(long words, Path dir) throws IOException {
+            this.words = words;
+            this.file = Files.createTempFile(dir, "states", ".bits");
+            long bytes = words * 8;
+            int count = (int) ((bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+            chunks = new MappedByteBuffer[count];
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (int i = 0; i < count; ++i) {
+                    long offset = (long) i << CHUNK_SHIFT;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                            Math.min(1L << CHUNK_SHIFT, bytes - offset));
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public long words() {
+            return words;
+        }
+
+        @Override
+        public long word(long index) {
+            long offset = index * 8;
+            return (long) LONGS.getVolatile(chunks[(int) (offset >>> CHUNK_SHIFT)],
+                    (int) (offset & ((1 << CHUNK_SHIFT) - 1)));
+        }
+
+        @Override
+        public void set(long bit) {
+            long offset = (bit >>> 6) * 8;
+            MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+            int position = (int) (offset & ((1 << CHUNK_SHIFT) - 1));
+            long mask = 1L << bit;
+            long old = (long) LONGS.getVolatile(chunk, position);
+            while ((old & mask) == 0 && !LONGS.compareAndSet(chunk, position, old, old | mask)) {
+                old = (long) LONGS.getVolatile(chunk, position);
+            }
+        }
+
+        /**
+         * Delete the file if the system allows it while mapped (Windows does
+         * not), else when the JVM exits; the mapping goes when the buffers are
+         * collected.
+         */
+        @Override
+        public void close() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package TicTacToeEngine;
+
+/**
+ * Dihedral symmetries of a board: the 8 rotations/reflections of a square board
+ * (or the 4 that keep the shape of a rectangular one).
+ * Each transform is applied to a packed 64-bit mask through byte lookup tables,
+ * so mapping a whole position costs at most 8 table reads per player.
+ *
+ * Transforms: 0 identity, 1 rotate 90, 2 rotate 180, 3 rotate 270,
+ * 4 mirror left-right, 5 mirror top-bottom, 6 transpose, 7 anti-transpose.
+ */
+public final class Symmetry {
+    public static final int TRANSFORMS = 8;
+    /** Transform that undoes each transform */
+    private static final int[] INVERSE = {0, 3, 2, 1, 4, 5, 6, 7};
+
+    private final Geometry geometry;
+    /** Transforms that map the board onto itself */
+    private final int[] valid;
+    /** Destination bit index of each cell, indexed [transform][cell] */
+    private final int[][] cellMap;
+    /** Transformed mask of each byte value at each byte position, indexed [transform][byte][value] */
+    private final long[][][] byteTables;
+
+    Symmetry(Geometry geometry) {
+        this.geometry = geometry;
+        int n = geometry.rows;
+        this.valid = (geometry.rows == geometry.cols)
+                ? new int[] {0, 1, 2, 3, 4, 5, 6, 7}
+                : new int[] {0, 2, 4, 5};
+
+        int cells = geometry.cellCount;
+        cellMap = new int[TRANSFORMS][cells];
+        for (int t : valid) {
+            for (int row = 0; row < geometry.rows; ++row) {
+                for (int col = 0; col < geometry.cols; ++col) {
+                    int r, c;
+                    switch (t) {
+                        case 1: r = col; c = n - 1 - row; break;
+                        case 2: r = geometry.rows - 1 - row; c = geometry.cols - 1 - col; break;
+                        case 3: r = n - 1 - col; c = row; break;
+                        case 4: r = row; c = geometry.cols - 1 - col; break;
+                        case 5: r = geometry.rows - 1 - row; c = col; break;
+                        case 6: r = col; c = row; break;
+                        case 7: r = n - 1 - col; c = n - 1 - row; break;
+                        default: r = row; c = col; break;
+                    }
+                    cellMap[t][geometry.index(row, col)] = geometry.index(r, c);
+                }
+            }
+        }
+
+        // Precompute the image of every byte value at every byte position
+        int bytes = (cells + 7) / 8;
+        byteTables = new long[TRANSFORMS][bytes][256];
+        for (int t : valid) {
+            for (int b = 0; b < bytes; ++b) {
+                for (int value = 1; value < 256; ++value) {
+                    long image = 0L;
+                    for (int i = 0; i < 8; ++i) {
+                        int cell = b * 8 + i;
+                        if ((value & (1 << i)) != 0 && cell < cells) {
+                            image |= 1L << cellMap[t][cell];
+                        }
+                    }
+                    byteTables[t][b][value] = image;
+                }
+            }
+        }
+    }
+
+    /** Apply the given transform to a packed mask */
+    public long transform(int t, long bits) {
+        long[][] tables = byteTables[t];
+        long image = 0L;
+        for (int b = 0; bits != 0; ++b, bits >>>= 8) {
+            image |= tables[b][(int) (bits & 0xFF)];
+        }
+        return image;
+    }
+
+    /** Bit index the given cell moves to under the given transform */
+    public int transformCell(int t, int cell) {
+        return cellMap[t][cell];
+    }
+
+    /** Transform that maps a transformed position back to the original */
+    public static int inverse(int t) {
+        return INVERSE[t];
+    }
+
+    /**
+     * Transform giving the canonical form of the position: the symmetric
+     * equivalent with the smallest (cross, nought) masks, compared unsigned.
+     */
+    public int canonicalTransform(long cross, long nought) {
+        int best = 0;
+        long bestCross = cross, bestNought = nought;
+        for (int i = 1; i < valid.length; ++i) {
+            int t = valid[i];
+            long c = transform(t, cross);
+            int cmp = Long.compareUnsigned(c, bestCross);
+            if (cmp > 0) continue;
+            long o = transform(t, nought);
+            if (cmp < 0 || Long.compareUnsigned(o, bestNought) < 0) {
+                best = t;
+                bestCross = c;
+                bestNought = o;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Canonicalize a position in one call. The result packs the canonical key
+     * (Zobrist hash of the canonical form, low 3 bits cleared) with the transform
+     * used in the low 3 bits; split it with keyOf() and transformOf().
+     */
+    public long canonicalize(long cross, long nought) {
+        int t = canonicalTransform(cross, nought);
+        long hash = zobristHash(BitBoard.CROSS, transform(t, cross))
+                ^ zobristHash(BitBoard.NOUGHT, transform(t, nought));
+        return (hash & ~7L) | t;
+    }
+
+    /** Canonical key part of a canonicalize() result */
+    public static long keyOf(long canonical) {
+        return canonical & ~7L;
+    }
+
+    /** Transform part of a canonicalize() result */
+    public static int transformOf(long canonical) {
+        return (int) (canonical & 7L);
+    }
+
+    /** Number of transforms that map this board onto itself (8 if square, else 4) */
+    public int getTransformCount() {
+        return valid.length;
+    }
+
+    /** The i-th transform that maps this board onto itself (0 is the identity) */
+    public int getTransform(int i) {
+        return valid[i];
+    }
+
+    private long zobristHash(int player, long stones) {
+        long[] keys = geometry.zobrist[player];
+        long hash = 0L;
+        while (stones != 0) {
+            hash ^= keys[Long.numberOfTrailingZeros(stones)];
+            stones &= stones - 1;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,187 @@
+package TicTacToeEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Perfect-play tablebase for small boards (up to 16 cells), generated offline
+ * by TablebaseGenerator and memory-mapped read-only at runtime, so lookups
+ * are zero-copy and the table never lives on the heap.
+ *
+ * After a 16-byte header (magic, rows, cols, winCondition) there is one byte
+ * per canonical position number: the base-3 number of the symmetry-reduced
+ * position (cell i contributes 3^i times 0 empty, 1 cross, 2 nought).
+ * Bits 0-4 hold the best move in the canonical frame (31 for none), bits 5-6
+ * the value for the player to move (1 loss, 2 draw, 3 win); 0 means the
+ * position is not reachable.
+ *
+ * As a MoveSearch it answers from the table and asks the fallback search for
+ * positions the table does not hold (e.g. after a pass).
+ */
+public final class Tablebase implements MoveSearch {
+    public static final int MAGIC = 0x54545442;  // "TTTB"
+    static final int HEADER_BYTES = 16;
+    /** Largest board a tablebase is built for (3^16 positions) */
+    public static final int MAX_CELLS = 16;
+
+    // Values for the player to move
+    public static final int ABSENT = 0;
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+    /** Move of a finished position */
+    public static final int NO_MOVE = 31;
+
+    private final Geometry geometry;
+    private final ByteBuffer buffer;
+    private final MoveSearch fallback;
+    /** Whether the last bestMove() came from the table */
+    private boolean fromTable;
+
+    private Tablebase(Geometry geometry, ByteBuffer buffer, MoveSearch fallback) {
+        this.geometry = geometry;
+        this.buffer = buffer;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Map the given tablebase file for the fallback's board shape.
+     * Throw IOException if it cannot be read or was built for another board.
+     */
+    public static Tablebase open(Path file, MoveSearch fallback) throws IOException {
+        Geometry geometry = fallback.getGeometry();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expected = HEADER_BYTES + positionCount(geometry);
+            if (channel.size() != expected) {
+                throw new IOException("Wrong tablebase size: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != geometry.rows
+                    || buffer.getInt(8) != geometry.cols || buffer.getInt(12) != geometry.winCondition) {
+                throw new IOException("Not a tablebase for this board: " + file);
+            }
+            return new Tablebase(geometry, buffer, fallback);
+        }
+    }
+
+    /**
+     * The fallback search backed by the tablebase file for its board shape,
+     * or the fallback alone if there is no usable file.
+     */
+    public static MoveSearch openIfPresent(MoveSearch fallback) {
+        Path file = fileFor(fallback.getGeometry());
+        if (!Files.isRegularFile(file)) return fallback;
+        try {
+            return open(file, fallback);
+        } catch (IOException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Default file of a board's tablebase, in the directory named by the
+     * "tictactoe.tablebase" system property (default "tablebase").
+     */
+    public static Path fileFor(Geometry geometry) {
+        String dir = System.getProperty("tictactoe.tablebase", "tablebase");
+        return Paths.get(dir, "ttt-" + geometry.rows + "x" + geometry.cols + "-" + geometry.winCondition + ".tb");
+    }
+
+    /**
+     * Table entry of the position, with the move mapped back to the board's
+     * own frame, or ABSENT. Decode it with valueOf() and moveOf().
+     */
+    public int probe(BitBoard position) {
+        long cross = position.getStones(BitBoard.CROSS);
+        long nought = position.getStones(BitBoard.NOUGHT);
+        int crossCount = Long.bitCount(cross);
+        int noughtCount = Long.bitCount(nought);
+        // Only positions of alternating play are in the table
+        int toMove = (crossCount == noughtCount) ? BitBoard.CROSS : BitBoard.NOUGHT;
+        if (crossCount - noughtCount > 1 || crossCount < noughtCount || position.getToMove() != toMove) {
+            return ABSENT;
+        }
+
+        Symmetry symmetry = geometry.symmetry;
+        int t = symmetry.canonicalTransform(cross, nought);
+        int entry = buffer.get(HEADER_BYTES + indexOf(geometry, symmetry.transform(t, cross),
+                symmetry.transform(t, nought))) & 0xFF;
+        int move = entry & NO_MOVE;
+        if (entry == ABSENT || move == NO_MOVE) return entry;
+        return (entry & ~NO_MOVE) | symmetry.transformCell(Symmetry.inverse(t), move);
+    }
+
+    /** Value (LOSS, DRAW, WIN) of a probe() entry for the player to move, or ABSENT */
+    public static int valueOf(int entry) {
+        return entry >> 5;
+    }
+
+    /** Best move (bit index) of a probe() entry, or NO_MOVE */
+    public static int moveOf(int entry) {
+        return entry & NO_MOVE;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        int entry = probe(position);
+        fromTable = entry != ABSENT && moveOf(entry) != NO_MOVE;
+        if (fromTable) return moveOf(entry);
+        return fallback.bestMove(position, deadlineNanos, cancelCount);
+    }
+
+    @Override
+    public boolean isExact() {
+        return fromTable || fallback.isExact();
+    }
+
+    @Override
+    public boolean keepsTree() {
+        return fallback.keepsTree();
+    }
+
+    @Override
+    public void cancel() {
+        fallback.cancel();
+    }
+
+    @Override
+    public int getCancelCount() {
+        return fallback.getCancelCount();
+    }
+
+    @Override
+    public void shutdown() {
+        fallback.shutdown();
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /** Number of position numbers of the board: 3^cells */
+    static int positionCount(Geometry geometry) {
+        if (geometry.cellCount > MAX_CELLS) {
+            throw new IllegalArgumentException("Board too large for a tablebase: " + geometry.cellCount + " cells");
+        }
+        int count = 1;
+        for (int i = 0; i < geometry.cellCount; ++i) count *= 3;
+        return count;
+    }
+
+    /** Base-3 position number of the given stones */
+    static int indexOf(Geometry geometry, long cross, long nought) {
+        int index = 0;
+        for (int i = geometry.cellCount - 1; i >= 0; --i) {
+            index = index * 3 + (int) ((cross >>> i) & 1) + 2 * (int) ((nought >>> i) & 1);
+        }
+        return index;
+    }
+}
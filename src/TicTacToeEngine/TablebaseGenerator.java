@@ -0,0 +1,111 @@
+package TicTacToeEngine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Offline builder of Tablebase files: walks every position reachable by
+ * alternating play with full minimax, writing each canonical position's value
+ * and best move straight into a memory-mapped output file, which doubles as
+ * the memo. No position is searched twice and nothing grows on the heap.
+ *
+ * Usage: java TicTacToeEngine.TablebaseGenerator [rows cols winCondition [file]]
+ * Without arguments, builds the 3x3 and 4x4 (4 in a row) tables in the
+ * default tablebase directory.
+ */
+public class TablebaseGenerator {
+    private final Geometry geometry;
+    private final BitBoard board;
+    private MappedByteBuffer table;
+    private int positions;
+
+    public TablebaseGenerator(Geometry geometry) {
+        Tablebase.positionCount(geometry);  // rejects boards that are too large
+        this.geometry = geometry;
+        this.board = new BitBoard(geometry);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3) {
+            Geometry geometry = Geometry.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                    Integer.parseInt(args[2]));
+            Path file = (args.length > 3) ? Paths.get(args[3]) : Tablebase.fileFor(geometry);
+            new TablebaseGenerator(geometry).generate(file);
+        } else {
+            for (Geometry geometry : new Geometry[] {Geometry.of(3, 3, 3), Geometry.of(4, 4, 4)}) {
+                new TablebaseGenerator(geometry).generate(Tablebase.fileFor(geometry));
+            }
+        }
+    }
+
+    /** Build the table into the given file, replacing it */
+    public void generate(Path file) throws IOException {
+        long start = System.nanoTime();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.deleteIfExists(file);
+        long size = Tablebase.HEADER_BYTES + (long) Tablebase.positionCount(geometry);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            table = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            table.putInt(0, Tablebase.MAGIC);
+            table.putInt(4, geometry.rows);
+            table.putInt(8, geometry.cols);
+            table.putInt(12, geometry.winCondition);
+
+            board.clear();
+            positions = 0;
+            int value = solve();
+            table.force();
+            System.out.printf("%dx%d (%d in a row): %d canonical positions, value %s, %.1f s -> %s%n",
+                    geometry.rows, geometry.cols, geometry.winCondition, positions,
+                    (value == Tablebase.WIN) ? "win" : (value == Tablebase.DRAW) ? "draw" : "loss",
+                    (System.nanoTime() - start) / 1e9, file);
+        } finally {
+            table = null;
+        }
+    }
+
+    /** Value of the board position for the player to move, storing it and all positions after it */
+    private int solve() {
+        Symmetry symmetry = geometry.symmetry;
+        long cross = board.getStones(BitBoard.CROSS);
+        long nought = board.getStones(BitBoard.NOUGHT);
+        int t = symmetry.canonicalTransform(cross, nought);
+        int slot = Tablebase.HEADER_BYTES
+                + Tablebase.indexOf(geometry, symmetry.transform(t, cross), symmetry.transform(t, nought));
+        int entry = table.get(slot);
+        if (entry != 0) return Tablebase.valueOf(entry & 0xFF);
+
+        int value;
+        int bestCell = Tablebase.NO_MOVE;
+        int state = board.getState();
+        if (state != BitBoard.PLAYING) {
+            // The player to move has lost, or nobody can move
+            value = (state == BitBoard.DRAW) ? Tablebase.DRAW : Tablebase.LOSS;
+        } else {
+            // An immediate win is the best move; other wins may take longer
+            long wins = board.getWinningCells(board.getToMove());
+            value = 0;
+            for (long empty = board.getEmpty(); empty != 0; empty &= empty - 1) {
+                int cell = Long.numberOfTrailingZeros(empty);
+                board.makeMove(cell);
+                int score = 4 - solve();  // the opponent's loss is our win
+                board.unmakeMove();
+                if (score > value || (score == Tablebase.WIN && (wins & (1L << cell)) != 0)) {
+                    value = score;
+                    bestCell = symmetry.transformCell(t, cell);
+                }
+            }
+        }
+        table.put(slot, (byte) (value << 5 | bestCell));
+        ++positions;
+        return value;
+    }
+}
@@ -0,0 +1,207 @@
+package TicTacToeEngine;
+
+/**
+ * Threat-space search for k-in-a-row on big boards (5x5 and up, 4 or 5 to win).
+ * Only forcing moves are tried: moves that make a winning threat (a "four":
+ * a line one stone short of a win), after which the opponent's block is forced.
+ * The attacker wins on a double threat or an unstoppable line (VCF, victory by
+ * continuous fours). Such a tree is narrow, so forced wins are found many
+ * plies deeper than full-width alpha-beta gets in the same time.
+ *
+ * Only fours are searched (VCF), not threes (VCT: victory by continuous
+ * threats, where the defender has several blocks per threat). VCF is a
+ * subset of VCT, so a forced win found is real but some wins by threes are
+ * missed; those are left to the fallback search.
+ *
+ * As a MoveSearch it is consulted before the general search: it plays a forced
+ * win if there is one, refutes the opponent's forced win if there is one, and
+ * otherwise hands the position to the fallback search.
+ */
+public class ThreatSearch implements MoveSearch {
+    /** Share of the time left spent on threat search before the general search */
+    private static final int TIME_SHARE = 4;
+    /** Positions visited per threat search at most */
+    private static final int NODE_LIMIT = 200_000;
+
+    private final Geometry geometry;
+    private final int[] moveOrder;
+    private final MoveSearch fallback;
+
+    private BitBoard board;
+    /** The fallback's cancel count when the search began; see cancelled() */
+    private int cancelCount;
+    /** Set when the threat search ran out of time or nodes, or was cancelled: its "no" is unproven */
+    private boolean stopped;
+    private long deadline;
+    private int nodes;
+    /** First move of the last forced win found */
+    private int winningMove;
+
+    public ThreatSearch(MoveSearch fallback) {
+        this.geometry = fallback.getGeometry();
+        this.moveOrder = Solver.orderByLines(geometry);
+        this.fallback = fallback;
+    }
+
+    /** Whether threat search pays off on the board: big enough, and 4 or 5 to win */
+    public static boolean appliesTo(Geometry geometry) {
+        return geometry.cellCount > MoveSearch.SOLVE_LIMIT && geometry.winCondition >= 4;
+    }
+
+    @Override
+    public int bestMove(BitBoard position, long deadlineNanos, int cancelCount) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        this.cancelCount = cancelCount;
+        stopped = cancelled();
+        long now = System.nanoTime();
+        deadline = (deadlineNanos == 0) ? 0 : now + (deadlineNanos - now) / TIME_SHARE;
+        board = position.copy();
+
+        int move = findWin();
+        if (move < 0 && !stopped) {
+            move = findDefense();
+        }
+        if (move >= 0 && !stopped) return move;
+        // A stopped threat search proves nothing (a defense found may not refute
+        // every threat), so the fallback decides. After a cancel() nobody wants
+        // the answer, so it is not started at all.
+        if (cancelled()) return move;
+        return fallback.bestMove(position, deadlineNanos, cancelCount);
+    }
+
+    /**
+     * First move of a forced win by continuous threats for the player to move
+     * in the given position, or -1 if none was found in time.
+     */
+    public int findWin(BitBoard position, long deadlineNanos) {
+        if (position.getState() != BitBoard.PLAYING) return -1;
+        cancelCount = fallback.getCancelCount();
+        stopped = false;
+        deadline = deadlineNanos;
+        board = position.copy();
+        return findWin();
+    }
+
+    /** Cancels are counted by the fallback; the threat search polls its count */
+    @Override
+    public void cancel() {
+        fallback.cancel();
+    }
+
+    @Override
+    public int getCancelCount() {
+        return fallback.getCancelCount();
+    }
+
+    @Override
+    public boolean keepsTree() {
+        return fallback.keepsTree();
+    }
+
+    @Override
+    public void shutdown() {
+        fallback.shutdown();
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /** Whether cancel() was called since the search began */
+    private boolean cancelled() {
+        return fallback.getCancelCount() != cancelCount;
+    }
+
+    private int findWin() {
+        nodes = 0;
+        return vcf(board.getGeometry().cellCount) ? winningMove : -1;
+    }
+
+    /**
+     * If the opponent threatens a forced win, return a move that refutes it
+     * (the best placed one if there are several), else -1.
+     */
+    private int findDefense() {
+        int me = board.getToMove();
+        board.passTurn();
+        boolean threatened = findWin() >= 0;
+        board.unmakeMove();
+        if (!threatened || stopped) return -1;
+
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        long empty = board.getEmpty();
+        for (int cell : moveOrder) {
+            if ((empty & (1L << cell)) == 0) continue;
+            int state = board.makeMove(cell);
+            boolean refutes = state != BitBoard.PLAYING || findWin() < 0;
+            int score = board.evaluate(me);
+            board.unmakeMove();
+            if (stopped) return -1;
+            if (refutes && score > bestScore) {
+                best = cell;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /** True if the player to move wins by continuous threats; sets winningMove */
+    private boolean vcf(int depth) {
+        if ((++nodes & 1023) == 0
+                && (cancelled() || deadline != 0 && System.nanoTime() - deadline > 0)) {
+            stopped = true;
+        }
+        if (nodes > NODE_LIMIT) stopped = true;
+        if (stopped || depth <= 0) return false;
+
+        int attacker = board.getToMove();
+        int defender = attacker ^ 1;
+        long wins = board.getWinningCells(attacker);
+        if (wins != 0) {
+            winningMove = Long.numberOfTrailingZeros(wins);
+            return true;
+        }
+
+        // A threat of the opponent must be blocked, and the block must threaten too
+        long candidates = board.getLineCells(attacker, geometry.winCondition - 2);
+        long against = board.getWinningCells(defender);
+        if (against != 0) {
+            if ((against & (against - 1)) != 0) return false;
+            candidates &= against;
+        }
+
+        for (long moves = candidates; moves != 0; moves &= moves - 1) {
+            int cell = Long.numberOfTrailingZeros(moves);
+            board.makeMove(cell);
+            boolean win = forcedReply(depth);
+            board.unmakeMove();
+            if (win) {
+                winningMove = cell;
+                return true;
+            }
+            if (stopped) return false;
+        }
+        return false;
+    }
+
+    /** After the attacker's threat: true if every reply of the defender still loses */
+    private boolean forcedReply(int depth) {
+        int defender = board.getToMove();
+        long threats = board.getWinningCells(defender ^ 1);
+        if (threats == 0 || board.getWinningCells(defender) != 0) {
+            return false;  // no threat after all, or the defender wins first
+        }
+        if ((threats & (threats - 1)) != 0) {
+            return true;  // two threats cannot both be blocked
+        }
+        if (board.makeMove(Long.numberOfTrailingZeros(threats)) != BitBoard.PLAYING) {
+            board.unmakeMove();
+            return false;  // the block filled the board
+        }
+        boolean win = vcf(depth - 2);
+        board.unmakeMove();
+        return win;
+    }
+}
@@ -0,0 +1,410 @@
+package TicTacToeEngine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine-vs-engine tournament: a round robin between all engines, or a
+ * gauntlet of one engine against the others, played on all cores.
+ * Games come in pairs from the same random opening with the colours swapped.
+ * Every move goes through GameEngine.stepGame(), the rules the Swing board uses.
+ *
+ * Each finished game is appended to a results file at once. Running again
+ * with the same file and settings skips the games already in it, so an
+ * interrupted tournament resumes where it stopped.
+ *
+ * Usage: java TicTacToeEngine.Tournament --engines A,B,... [--gauntlet]
+ *        [--games N] [--size RxC] [--win K] [--openings PLIES] [--threads N]
+ *        [--seed S] [--out FILE]
+ * Engines are GameSimulator player names (random, greedy, search[:ms], mcts[:ms]).
+ * --games is per pairing, --openings the number of random moves before the engines play.
+ */
+public class Tournament {
+    /** Elo points per factor 10 of the odds */
+    private static final double ELO_SCALE = 400;
+    /** Normal quantile of the 95% confidence intervals */
+    private static final double Z95 = 1.96;
+
+    private final Geometry geometry;
+    private final String[] engines;
+    private final boolean gauntlet;
+    private final int openingPlies;
+    private final long seed;
+    private final Path out;
+
+    // Games of engine i against engine j: won, drawn and played
+    private final int[][] wins;
+    private final int[][] draws;
+    private final int[][] games;
+    private final Set<String> finished = new HashSet<>();
+    private BufferedWriter writer;
+
+    public Tournament(Geometry geometry, String[] engines, boolean gauntlet, int openingPlies, long seed, Path out) {
+        if (engines.length < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two engines");
+        }
+        if (new HashSet<>(Arrays.asList(engines)).size() != engines.length) {
+            throw new IllegalArgumentException("Duplicate engine in " + Arrays.toString(engines));
+        }
+        for (String engine : engines) {
+            GameSimulator.validatePlayer(engine);  // reject bad names up front
+        }
+        if (openingPlies < 0 || openingPlies >= geometry.cellCount) {
+            throw new IllegalArgumentException("Invalid opening length: " + openingPlies);
+        }
+        this.geometry = geometry;
+        this.engines = engines;
+        this.gauntlet = gauntlet;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+        this.out = out;
+        this.wins = new int[engines.length][engines.length];
+        this.draws = new int[engines.length][engines.length];
+        this.games = new int[engines.length][engines.length];
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String[] engines = null;
+        boolean gauntlet = false;
+        int gamesPerPairing = 100;
+        int rows = 3, cols = 3, win = 0;
+        int openings = 2;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        Path out = Paths.get("tournament.csv");
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("--gauntlet")) {
+                gauntlet = true;
+                continue;
+            }
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--engines": engines = value.split(","); break;
+                case "--games": gamesPerPairing = Integer.parseInt(value); break;
+                case "--size":
+                    String[] size = value.toLowerCase(Locale.ROOT).split("x");
+                    rows = Integer.parseInt(size[0]);
+                    cols = Integer.parseInt(size[size.length - 1]);
+                    break;
+                case "--win": win = Integer.parseInt(value); break;
+                case "--openings": openings = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--out": out = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i - 1]);
+            }
+        }
+        if (engines == null) throw new IllegalArgumentException("Missing --engines");
+        Geometry geometry = Geometry.of(rows, cols, (win > 0) ? win : Geometry.winConditionFor(rows));
+        new Tournament(geometry, engines, gauntlet, openings, seed, out).run(gamesPerPairing, threads);
+    }
+
+    /** Play the missing games of every pairing (rounded up to an even number) and print the ratings */
+    public void run(int gamesPerPairing, int threads) throws IOException, InterruptedException {
+        // The engine list too: finished games are matched by engine names and rounds,
+        // and which engine has X in a round depends on the order of the list
+        String settings = String.format("# %dx%d win %d openings %d seed %d engines %s",
+                geometry.rows, geometry.cols, geometry.winCondition, openingPlies, seed, String.join(" ", engines));
+        resume(settings);
+
+        // Schedule: round r of pairing (a, b); a has X in even rounds, b in odd ones
+        List<int[]> schedule = new ArrayList<>();
+        int rounds = (gamesPerPairing + 1) / 2 * 2;
+        for (int round = 0; round < rounds; ++round) {
+            for (int a = 0; a < engines.length; ++a) {
+                for (int b = a + 1; b < engines.length; ++b) {
+                    if (gauntlet && a != 0) continue;
+                    int x = (round % 2 == 0) ? a : b;
+                    int o = a + b - x;
+                    if (!finished.contains(key(engines[x], engines[o], round))) schedule.add(new int[] {x, o, round});
+                }
+            }
+        }
+        System.out.printf("%s, %s, %d games per pairing, %d to play, %d threads%n",
+                settings.substring(2), gauntlet ? "gauntlet" : "round robin",
+                rounds, schedule.size(), threads);
+
+        writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try {
+            if (Files.size(out) == 0) {
+                writer.write(settings);
+                writer.newLine();
+                writer.write("x,o,round,result,moves");
+                writer.newLine();
+                writer.flush();
+            } else if (!endsWithNewline()) {
+                writer.newLine();  // finish a line torn by an interruption
+            }
+            play(schedule, threads);
+        } finally {
+            writer.close();
+        }
+        printRatings();
+    }
+
+    /**
+     * Load the games already in the results file, which must have been played
+     * with the same settings and the same engines in the same order.
+     */
+    private void resume(String settings) throws IOException {
+        if (!Files.exists(out) || Files.size(out) == 0) return;
+        try (BufferedReader reader = Files.newBufferedReader(out, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (!settings.equals(header)) {
+                throw new IllegalStateException("Results file " + out + " is for other settings: " + header);
+            }
+            int loaded = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length != 5 || fields[0].equals("x")) continue;  // column names, or a torn last line
+                int x = Arrays.asList(engines).indexOf(fields[0]);
+                int o = Arrays.asList(engines).indexOf(fields[1]);
+                if (x < 0 || o < 0) continue;  // not a game of this run (a damaged line)
+                if (finished.add(key(fields[0], fields[1], Integer.parseInt(fields[2])))) {
+                    record(x, o, fields[3]);
+                    ++loaded;
+                }
+            }
+            System.out.printf("Resuming: %d games loaded from %s%n", loaded, out);
+        }
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        byte[] bytes = Files.readAllBytes(out);
+        return bytes[bytes.length - 1] == '\n';
+    }
+
+    /** Play the scheduled games; a worker's failure (e.g. writing results) fails the run */
+    private void play(List<int[]> schedule, int threads) throws IOException, InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        List<Future<Void>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            SplittableRandom random = seeds.split();
+            results.add(pool.submit(() -> {
+                work(schedule, next, random);
+                return null;
+            }));
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            System.out.printf("%d / %d games in %.0f s%n",
+                    Math.min(next.get(), schedule.size()), schedule.size(), (System.nanoTime() - start) / 1e9);
+        }
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IllegalStateException("Tournament thread failed", e.getCause());
+            }
+        }
+    }
+
+    /** One worker: its own engine instances, claiming scheduled games until none are left */
+    private void work(List<int[]> schedule, AtomicInteger next, SplittableRandom random) throws IOException {
+        Map<Integer, MoveSearch> players = new HashMap<>();
+        GameEngine engine = new GameEngine(geometry.rows, geometry.cols, geometry.winCondition);
+        try {
+            int index;
+            while ((index = next.getAndIncrement()) < schedule.size()) {
+                int[] game = schedule.get(index);
+                int[] sides = {game[0], game[1]};
+                int state = playGame(engine, sides, game[2], players, random);
+                String result = (state == GameEngine.CROSS_WON) ? "X" : (state == GameEngine.NOUGHT_WON) ? "O" : "D";
+                String line = engines[game[0]] + "," + engines[game[1]] + "," + game[2] + "," + result + ","
+                        + engine.getBitBoard().getMoveCount();
+                synchronized (this) {
+                    try {
+                        writer.write(line);
+                        writer.newLine();
+                        writer.flush();
+                    } catch (IOException e) {
+                        next.set(schedule.size());  // the other workers stop too
+                        throw new IOException("Cannot write results to " + out, e);
+                    }
+                    record(game[0], game[1], result);
+                }
+            }
+        } finally {
+            for (MoveSearch player : players.values()) {
+                player.shutdown();
+            }
+        }
+    }
+
+    /** Play one game: the round's random opening, then the engines. Return the final state */
+    private int playGame(GameEngine engine, int[] sides, int round, Map<Integer, MoveSearch> players,
+                         SplittableRandom random) {
+        engine.newGame();
+        BitBoard board = engine.getBitBoard();
+
+        // Both games of a round pair share an opening; a ply that would end the game is redrawn
+        SplittableRandom opening = new SplittableRandom(seed + (round / 2) * 0x9E3779B97F4A7C15L);
+        for (int ply = 0; ply < openingPlies; ++ply) {
+            long empty = board.getEmpty();
+            int cell = RandomPlayer.randomCell(empty, opening);
+            for (int tries = 0; tries < 8 && (board.getWinningCells(board.getToMove()) & (1L << cell)) != 0; ++tries) {
+                cell = RandomPlayer.randomCell(empty, opening);
+            }
+            if (step(engine, cell) != GameEngine.PLAYING) return engine.getState();
+        }
+
+        int state = engine.getState();
+        while (state == GameEngine.PLAYING) {
+            int side = sides[engine.getCurrentPlayer()];
+            MoveSearch player = players.computeIfAbsent(side,
+                    i -> GameSimulator.createPlayer(engines[i], geometry, random.split()));
+            long moveTime = GameSimulator.moveTime(engines[side]);
+            int cell = player.bestMove(board, (moveTime == 0) ? 0 : System.nanoTime() + moveTime);
+            state = step(engine, cell);
+        }
+        return state;
+    }
+
+    private int step(GameEngine engine, int cell) {
+        return engine.stepGame(engine.getCurrentPlayer(), cell / geometry.cols, cell % geometry.cols);
+    }
+
+    private static String key(String x, String o, int round) {
+        return x + "," + o + "," + round;
+    }
+
+    /** Add a game to the score table (caller holds the lock, or is the only thread) */
+    private void record(int x, int o, String result) {
+        if (result.equals("X")) {
+            ++wins[x][o];
+        } else if (result.equals("O")) {
+            ++wins[o][x];
+        } else {
+            ++draws[x][o];
+            ++draws[o][x];
+        }
+        ++games[x][o];
+        ++games[o][x];
+    }
+
+    private synchronized void printRatings() {
+        int n = engines.length;
+        System.out.println("Pairings (score of the first engine, Elo difference, 95% interval):");
+        for (int a = 0; a < n; ++a) {
+            for (int b = a + 1; b < n; ++b) {
+                if (games[a][b] == 0) continue;
+                double score = score(a, b) / games[a][b];
+                double error = Z95 * standardError(a, b, score);
+                System.out.printf("  %-14s vs %-14s %5d games %6.1f%%  %s [%s, %s]%n", engines[a], engines[b],
+                        games[a][b], 100 * score, elo(score), elo(score - error), elo(score + error));
+            }
+        }
+
+        double[] ratings = fitRatings();
+        System.out.println("Ratings (mean 0, 95% interval):");
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; ++i) order[i] = i;
+        Arrays.sort(order, (i, j) -> Double.compare(ratings[j], ratings[i]));
+        for (int i : order) {
+            // Standard error from the curvature of the log-likelihood at the fit
+            double information = 0;
+            int played = 0;
+            for (int j = 0; j < n; ++j) {
+                double p = expected(ratings[i] - ratings[j]);
+                information += games[i][j] * p * (1 - p);
+                played += games[i][j];
+            }
+            double error = (information == 0) ? Double.POSITIVE_INFINITY
+                    : Z95 * ELO_SCALE / Math.log(10) / Math.sqrt(information);
+            System.out.printf("  %-14s %7.0f +/- %.0f  (%d games)%n", engines[i], ratings[i], error, played);
+        }
+    }
+
+    /** Points of engine a against engine b (win 1, draw 1/2) */
+    private double score(int a, int b) {
+        return wins[a][b] + draws[a][b] / 2.0;
+    }
+
+    /** Standard error of a's mean score against b, from the spread of the game results */
+    private double standardError(int a, int b, double score) {
+        int n = games[a][b];
+        int losses = n - wins[a][b] - draws[a][b];
+        double variance = (wins[a][b] * (1 - score) * (1 - score) + draws[a][b] * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / n;
+        return Math.sqrt(variance / n);
+    }
+
+    /**
+     * Maximum-likelihood ratings of the Bradley-Terry model (a draw counts half a
+     * win), by Zermelo's iteration. Each pairing gets one extra virtual draw so
+     * that a perfect score still gives a finite rating.
+     */
+    private double[] fitRatings() {
+        int n = engines.length;
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < 10_000; ++iteration) {
+            double change = 0;
+            for (int i = 0; i < n; ++i) {
+                double won = 0, expected = 0;
+                for (int j = 0; j < n; ++j) {
+                    if (j == i || games[i][j] == 0) continue;
+                    won += score(i, j) + 0.5;
+                    expected += (games[i][j] + 1) / (strength[i] + strength[j]);
+                }
+                if (expected == 0) continue;
+                double updated = won / expected;
+                change = Math.max(change, Math.abs(Math.log(updated / strength[i])));
+                strength[i] = updated;
+            }
+            if (change < 1e-9) break;
+        }
+        double[] ratings = new double[n];
+        double mean = 0;
+        for (int i = 0; i < n; ++i) {
+            ratings[i] = ELO_SCALE * Math.log10(strength[i]);
+            mean += ratings[i] / n;
+        }
+        for (int i = 0; i < n; ++i) ratings[i] -= mean;
+        return ratings;
+    }
+
+    /** Expected score for an Elo difference */
+    private static double expected(double difference) {
+        return 1 / (1 + Math.pow(10, -difference / ELO_SCALE));
+    }
+
+    /** Elo difference for a score, as text ("+inf" for a perfect score) */
+    private static String elo(double score) {
+        if (score >= 1) return "+inf";
+        if (score <= 0) return "-inf";
+        return String.format("%+d", Math.round(-ELO_SCALE * Math.log10(1 / score - 1)));
+    }
+}
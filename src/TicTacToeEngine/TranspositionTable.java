@@ -0,0 +1,130 @@
+package TicTacToeEngine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table for game-tree search, kept in two primitive
+ * long arrays so it never allocates after construction.
+ * The table is open-addressed in buckets of two slots: the first keeps the
+ * deepest result seen (unless it is from an older search), the second is
+ * always replaced. Each entry packs value, depth, bound type, best move and
+ * search generation into one long.
+ *
+ * The table is lock-free: several search threads may probe and store at once.
+ * Each slot stores (hash ^ data) next to data, so an entry torn by two racing
+ * writers no longer matches its hash and reads as a miss.
+ */
+public final class TranspositionTable {
+    // Bound types
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /** Move field of an entry without a best move */
+    public static final int NO_MOVE = 127;
+    /** probe() result for a position that is not in the table */
+    public static final long MISS = 0L;
+
+    private static final int SLOT_BYTES = 16;
+    private static final long VALID = 1L << 63;
+
+    /** Checked keys (hash ^ data) and packed entries, two slots per bucket */
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    /** Search generation, stamped on every entry stored */
+    private volatile int generation;
+
+    /** Table using at most the given number of megabytes (at least one bucket) */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Invalid table size: " + megabytes + " MB");
+        }
+        long slots = (long) megabytes * 1024 * 1024 / SLOT_BYTES;
+        int buckets = Integer.highestOneBit((int) Math.min(slots / 2, 1 << 29));
+        this.keys = new long[buckets * 2];
+        this.data = new long[buckets * 2];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Packed entry stored for the given hash, or MISS.
+     * Decode it with valueOf(), depthOf(), boundOf() and moveOf().
+     */
+    public long probe(long hash) {
+        int slot = slotOf(hash);
+        for (int i = slot; i < slot + 2; ++i) {
+            long entry = data[i];
+            if ((keys[i] ^ entry) == hash && entry != MISS) return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Remember a search result: value of the position searched depth plies
+     * deep, its bound type (EXACT, LOWER or UPPER) and best move (or NO_MOVE).
+     */
+    public void store(long hash, int depth, int bound, int value, int move) {
+        int gen = generation;
+        long entry = VALID
+                | (long) (gen & 0x7F) << 49
+                | (long) (move & 0x7F) << 42
+                | (long) bound << 40
+                | (long) (Math.min(depth, 255) & 0xFF) << 32
+                | (value & 0xFFFFFFFFL);
+
+        // Depth-preferred slot: same position, deeper result or left by an older search
+        int slot = slotOf(hash);
+        long old = data[slot];
+        if (old == MISS || (keys[slot] ^ old) == hash
+                || depth >= depthOf(old) || generationOf(old) != (gen & 0x7F)) {
+            data[slot] = entry;
+            keys[slot] = hash ^ entry;
+        } else {
+            data[slot + 1] = entry;
+            keys[slot + 1] = hash ^ entry;
+        }
+    }
+
+    /** Start a new search: entries of earlier searches become first to be replaced */
+    public void newSearch() {
+        generation = (generation + 1) & 0x7F;
+    }
+
+    /** Forget all entries */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    /** Number of entries the table can hold */
+    public int getCapacity() {
+        return data.length;
+    }
+
+    public static int valueOf(long entry) {
+        return (int) entry;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> 40) & 3;
+    }
+
+    /** Best move of the entry, or NO_MOVE */
+    public static int moveOf(long entry) {
+        return (int) (entry >>> 42) & 0x7F;
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> 49) & 0x7F;
+    }
+
+    /** First slot of the bucket for the given hash */
+    private int slotOf(long hash) {
+        return (int) ((hash ^ (hash >>> 32)) & bucketMask) << 1;
+    }
+}